@@ -2,15 +2,19 @@ package ru.practicum.shareit.booking.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.ratelimit.Bulkheads;
+import reactor.core.publisher.Mono;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -18,43 +22,53 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                         ClientHttpConnector connector, RequestCoalescer coalescer,
+                         ResponseCache responseCache, Bulkheads bulkheads) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(connector)
+                        .build(),
+                coalescer,
+                responseCache,
+                bulkheads.get("bookings")
         );
     }
 
-    public ResponseEntity<Object> createBooking(BookingCreationDto bookingDto, long userId) {
-        return post("", userId, bookingDto);
+    public Mono<ResponseEntity<Object>> createBooking(BookingCreationDto bookingDto, long userId) {
+        return evicting(post("", userId, bookingDto), "bookings", "items");
     }
 
-    public ResponseEntity<Object> considerationOfRequest(long bookingId, long userId, boolean approved) {
+    public Mono<ResponseEntity<Object>> considerationOfRequest(long bookingId, long userId, boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
-        return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
+        return evicting(patch("/" + bookingId + "?approved={approved}", userId, parameters, null), "bookings",
+                "items");
     }
 
-    public ResponseEntity<Object> getBookingById(long bookingId, long userId) {
+    public Mono<ResponseEntity<Object>> getBookingById(long bookingId, long userId) {
         return super.get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getAllBookingsByUser(long userId, BookingState state, long from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getAllBookingsByUser(long userId, BookingState state, long from, int size,
+                                                             String cursor, String ifNoneMatch) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.toString(),
                 "from", from,
                 "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        return getCached("bookings.list", withCursor("?state={state}&from={from}&size={size}", parameters, cursor),
+                userId, parameters, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> getAllBookingsByOwner(long userId, BookingState state, long from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getAllBookingsByOwner(long userId, BookingState state, long from, int size,
+                                                              String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.toString(),
                 "from", from,
                 "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        return get(withCursor("/owner?state={state}&from={from}&size={size}", parameters, cursor), userId,
+                parameters);
     }
 }
@@ -2,99 +2,202 @@ package ru.practicum.shareit.client;
 
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.practicum.shareit.ratelimit.Bulkhead;
+import reactor.core.publisher.Mono;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 public class BaseClient {
 
     private static final String HEADER_NAME = "X-Sharer-User-Id";
-    protected final RestTemplate rest;
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(HttpHeaders.CONNECTION, "Keep-Alive",
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.TE, HttpHeaders.TRAILER, HttpHeaders.UPGRADE,
+            HttpHeaders.PROXY_AUTHENTICATE, HttpHeaders.PROXY_AUTHORIZATION);
+    protected final WebClient webClient;
+    @Nullable
+    private final RequestCoalescer coalescer;
+    @Nullable
+    private final ResponseCache responseCache;
+    @Nullable
+    private final Bulkhead bulkhead;
+    private final Map<String, Bulkhead> routeBulkheads = new HashMap<>();
+
+    public BaseClient(WebClient webClient) {
+        this(webClient, null, null, null);
+    }
+
+    /**
+     * @param bulkhead ограничение числа одновременных запросов клиента к серверу, null - без ограничения
+     */
+    public BaseClient(WebClient webClient, @Nullable RequestCoalescer coalescer,
+                      @Nullable ResponseCache responseCache, @Nullable Bulkhead bulkhead) {
+        this.webClient = webClient;
+        this.coalescer = coalescer;
+        this.responseCache = responseCache;
+        this.bulkhead = bulkhead;
+    }
+
+    /**
+     * Задаёт отдельное ограничение одновременных запросов для маршрута getCoalesced/getCached
+     * вместо общего ограничения клиента. Вызывается из конструктора клиента.
+     */
+    protected void setRouteBulkhead(String route, Bulkhead routeBulkhead) {
+        routeBulkheads.put(route, routeBulkhead);
+    }
+
+    protected Mono<ResponseEntity<Object>> get(String path) {
+        return get(path, null, null);
+    }
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
+        return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path) {
-        return get(path, null, null);
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, null, bulkhead);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
-        return get(path, userId, null);
+    /**
+     * GET-запрос, который объединяется с одновременными одинаковыми запросами (тот же путь, параметры
+     * и пользователь) в один запрос к серверу. Подходит только для ответов, одинаковых для всех
+     * ожидающих клиентов; route задаёт тег метрики объединения.
+     */
+    protected Mono<ResponseEntity<Object>> getCoalesced(String route, String path, Long userId,
+                                                        @Nullable Map<String, Object> parameters) {
+        return getCoalesced(route, path, userId, parameters, null);
+    }
+
+    /**
+     * Кэшируемый GET-запрос: ответ берётся из кэша шлюза или перепроверяется на сервере по ETag
+     * (см. {@link ResponseCache}). Запросы к серверу при промахе объединяются, как в getCoalesced.
+     */
+    protected Mono<ResponseEntity<Object>> getCached(String route, String path, Long userId,
+                                                     @Nullable Map<String, Object> parameters,
+                                                     @Nullable String ifNoneMatch) {
+        if (responseCache == null) {
+            return getCoalesced(route, path, userId, parameters, ifNoneMatch);
+        }
+        return responseCache.get(route, requestKey(path, userId, parameters), ifNoneMatch,
+                validator -> getCoalesced(route, path, userId, parameters, validator));
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    /**
+     * Изменяющий запрос, после успешного выполнения которого сбрасываются кэшированные ответы
+     * перечисленных групп маршрутов.
+     */
+    protected Mono<ResponseEntity<Object>> evicting(Mono<ResponseEntity<Object>> request, String... groups) {
+        if (responseCache == null) {
+            return request;
+        }
+        return request.doOnNext(response -> {
+            if (response.getStatusCode().is2xxSuccessful()) {
+                responseCache.evict(groups);
+            }
+        });
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    private Mono<ResponseEntity<Object>> getCoalesced(String route, String path, Long userId,
+                                                      @Nullable Map<String, Object> parameters,
+                                                      @Nullable String ifNoneMatch) {
+        Bulkhead routeBulkhead = routeBulkheads.getOrDefault(route, bulkhead);
+        if (coalescer == null) {
+            return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, ifNoneMatch, routeBulkhead);
+        }
+        return coalescer.coalesce(route, requestKey(path, userId, parameters) + " " + ifNoneMatch,
+                () -> makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, ifNoneMatch, routeBulkhead));
+    }
+
+    private static String requestKey(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return HttpMethod.GET + " " + path + " " + (parameters != null ? new TreeMap<>(parameters) : Map.of())
+                + " " + userId;
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId,
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId,
                                               @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body, null, bulkhead);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId,
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId,
                                              @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body, null, bulkhead);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId,
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId,
                                                @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body, null, bulkhead);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null, null, bulkhead);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId,
-                                                          @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
-
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+    /**
+     * Добавляет к пути параметр cursor постраничного вывода, если клиент его передал.
+     * Курсор следующей страницы сервер возвращает в заголовке X-Next-Cursor, который проксируется как есть.
+     */
+    protected static String withCursor(String path, Map<String, Object> parameters, @Nullable String cursor) {
+        if (cursor == null) {
+            return path;
+        }
+        parameters.put("cursor", cursor);
+        return path + "&cursor={cursor}";
+    }
+
+    /**
+     * Ответ сервера передаётся клиенту как массив байт вместе со статусом и заголовками,
+     * без разбора JSON в объекты и повторной сериализации на стороне шлюза.
+     * Запрос не блокирует поток: результат приходит в Mono, который контроллер отдаёт как есть.
+     */
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId,
+                                                                @Nullable Map<String, Object> parameters,
+                                                                @Nullable T body, @Nullable String ifNoneMatch,
+                                                                @Nullable Bulkhead bulkhead) {
+        WebClient.RequestBodySpec requestSpec = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(defaultHeaders(userId)));
+        if (ifNoneMatch != null) {
+            requestSpec.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        WebClient.RequestHeadersSpec<?> request = body != null ? requestSpec.bodyValue(body) : requestSpec;
+        Mono<ResponseEntity<Object>> response = request.exchangeToMono(r -> r.toEntity(byte[].class))
+                .map(r -> prepareGatewayResponse(r.getStatusCode(), r.getHeaders(), r.getBody()));
+        return bulkhead != null ? bulkhead.call(() -> response) : response;
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -107,17 +210,36 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static ResponseEntity<Object> prepareGatewayResponse(HttpStatus status, @Nullable HttpHeaders headers,
+                                                                 @Nullable byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status);
+        if (headers != null) {
+            HttpHeaders responseHeaders = endToEndHeaders(headers);
+            // При транспорте Smile клиент шлюза получает тот же ответ в JSON
+            if (body != null && body.length > 0 && responseHeaders.getContentType() != null
+                    && SmileTransportConfig.SMILE.isCompatibleWith(responseHeaders.getContentType())) {
+                body = SmileTranscoder.toJson(body);
+                responseHeaders.setContentType(MediaType.APPLICATION_JSON);
+                responseHeaders.remove(HttpHeaders.CONTENT_LENGTH);
+            }
+            responseBuilder.headers(responseHeaders);
         }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
     }
+
+    // Заголовки соединения между шлюзом и сервером не относятся к ответу клиенту
+    private static HttpHeaders endToEndHeaders(HttpHeaders headers) {
+        HttpHeaders endToEndHeaders = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (HOP_BY_HOP_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                endToEndHeaders.addAll(name, values);
+            }
+        });
+        return endToEndHeaders;
+    }
 }
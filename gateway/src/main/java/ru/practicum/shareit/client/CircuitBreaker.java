@@ -0,0 +1,230 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Автоматический выключатель запросов шлюза к серверу. Результаты последних window-size запросов хранятся
+ * в скользящем окне; если после minimum-calls запросов доля неудачных (ответ 5xx, ошибка соединения,
+ * таймаут или ответ дольше slow-call-duration) достигает failure-rate-threshold процентов, выключатель
+ * размыкается. Пока он разомкнут, запросы сразу завершаются ServerUnavailableException (ответ 503),
+ * не занимая соединения пула. Через open-duration пропускаются half-open-calls пробных запросов:
+ * если все успешны, выключатель замыкается, при первой неудаче снова размыкается.
+ * <p>
+ * Применяется ко всем WebClient шлюза как ExchangeFilterFunction (см. HttpClientConfig).
+ * Метрики: shareit.gateway.circuit-breaker.state (0 - замкнут, 1 - разомкнут, 2 - пробные запросы),
+ * shareit.gateway.circuit-breaker.transitions с тегами from и to,
+ * shareit.gateway.circuit-breaker.calls с тегом result (success, failure, rejected).
+ */
+@Component
+@Slf4j
+public class CircuitBreaker implements ExchangeFilterFunction {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final long REJECTED = -1;
+
+    private final boolean enabled;
+
+    private final int minimumCalls;
+
+    private final int failureRateThreshold;
+
+    private final long slowCallNanos;
+
+    private final long openNanos;
+
+    private final int halfOpenCalls;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter successCalls;
+
+    private final Counter failureCalls;
+
+    private final Counter rejectedCalls;
+
+    // Состояние ниже изменяется только под монитором this
+    private final boolean[] window;
+
+    private int windowIndex;
+
+    private int windowCount;
+
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+
+    // Номер периода состояния: результат запроса, начатого в другом периоде, не учитывается
+    private long epoch;
+
+    private long openedAt;
+
+    private int halfOpenStarted;
+
+    private int halfOpenSucceeded;
+
+    public CircuitBreaker(MeterRegistry meterRegistry,
+                          @Value("${shareit-server.circuit-breaker.enabled:true}") boolean enabled,
+                          @Value("${shareit-server.circuit-breaker.window-size:50}") int windowSize,
+                          @Value("${shareit-server.circuit-breaker.minimum-calls:20}") int minimumCalls,
+                          @Value("${shareit-server.circuit-breaker.failure-rate-threshold:50}")
+                          int failureRateThreshold,
+                          @Value("${shareit-server.circuit-breaker.slow-call-duration:3s}") Duration slowCallDuration,
+                          @Value("${shareit-server.circuit-breaker.open-duration:10s}") Duration openDuration,
+                          @Value("${shareit-server.circuit-breaker.half-open-calls:3}") int halfOpenCalls) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.successCalls = callsCounter("success");
+        this.failureCalls = callsCounter("failure");
+        this.rejectedCalls = callsCounter("rejected");
+        Gauge.builder("shareit.gateway.circuit-breaker.state", this, c -> c.getState().ordinal())
+                .description("Состояние выключателя: 0 - замкнут, 1 - разомкнут, 2 - пробные запросы")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!enabled) {
+            return next.exchange(request);
+        }
+        return Mono.defer(() -> {
+            long permit = tryAcquire(System.nanoTime());
+            if (permit == REJECTED) {
+                rejectedCalls.increment();
+                long retryAfterSeconds = retryAfterSeconds(System.nanoTime());
+                return Mono.error(new ServerUnavailableException("Сервер временно недоступен, повторите через "
+                        + retryAfterSeconds + " с", retryAfterSeconds));
+            }
+            long start = System.nanoTime();
+            return next.exchange(request)
+                    .doOnSuccess(response -> onResult(permit, response == null
+                            || response.statusCode().is5xxServerError()
+                            || System.nanoTime() - start > slowCallNanos))
+                    .doOnError(e -> onResult(permit, true))
+                    .doOnCancel(() -> onCancel(permit));
+        });
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private synchronized long tryAcquire(long now) {
+        if (state == State.OPEN) {
+            if (now - openedAt < openNanos) {
+                return REJECTED;
+            }
+            transitionTo(State.HALF_OPEN, now);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenStarted >= halfOpenCalls) {
+                return REJECTED;
+            }
+            halfOpenStarted++;
+        }
+        return epoch;
+    }
+
+    private void onResult(long permit, boolean failed) {
+        (failed ? failureCalls : successCalls).increment();
+        synchronized (this) {
+            if (permit != epoch) {
+                return;
+            }
+            if (state == State.HALF_OPEN) {
+                if (failed) {
+                    transitionTo(State.OPEN, System.nanoTime());
+                } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                    transitionTo(State.CLOSED, System.nanoTime());
+                }
+                return;
+            }
+            record(failed);
+            if (windowCount >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCount) {
+                transitionTo(State.OPEN, System.nanoTime());
+            }
+        }
+    }
+
+    // Отменённый пробный запрос не даёт результата, поэтому возвращает разрешение
+    private synchronized void onCancel(long permit) {
+        if (permit == epoch && state == State.HALF_OPEN) {
+            halfOpenStarted--;
+        }
+    }
+
+    private void record(boolean failed) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void transitionTo(State newState, long now) {
+        State oldState = state;
+        state = newState;
+        epoch++;
+        if (newState == State.OPEN) {
+            openedAt = now;
+            log.error("Выключатель запросов к серверу разомкнут после состояния " + oldState);
+        } else {
+            log.info("Выключатель запросов к серверу перешёл из состояния " + oldState + " в " + newState);
+        }
+        if (newState == State.HALF_OPEN) {
+            halfOpenStarted = 0;
+            halfOpenSucceeded = 0;
+        }
+        if (newState == State.CLOSED) {
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+        Counter.builder("shareit.gateway.circuit-breaker.transitions")
+                .description("Переходы выключателя запросов к серверу между состояниями")
+                .tag("from", oldState.name())
+                .tag("to", newState.name())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private synchronized long retryAfterSeconds(long now) {
+        long remaining = state == State.OPEN ? openNanos - (now - openedAt) : 0;
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private Counter callsCounter(String result) {
+        return Counter.builder("shareit.gateway.circuit-breaker.calls")
+                .description("Запросы к серверу через выключатель")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
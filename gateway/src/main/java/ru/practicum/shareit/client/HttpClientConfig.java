@@ -0,0 +1,68 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Общий неблокирующий пул соединений шлюза с сервером для всех клиентов (UserClient, ItemClient,
+ * BookingClient, ItemRequestClient). Метрики пула reactor.netty.connection.provider.* (активные,
+ * свободные и ожидающие соединения) публикуются через Micrometer.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * Проверки соединения перед повторным использованием (validate-after-inactivity пула Apache HttpClient)
+     * в reactor-netty нет. Вместо неё соединение, простоявшее без запросов дольше idle-timeout, закрывается,
+     * а не проверяется: раньше, чем его успеет закрыть сервер или балансировщик, поэтому idle-timeout должен
+     * быть меньше их таймаута простоя. Фоновая очистка раз в eviction-interval закрывает такие соединения,
+     * не дожидаясь очередного запроса, а max-life-time ограничивает срок жизни любого соединения, чтобы
+     * после смены адресов сервера пул переподключился. Соединение, уже закрытое другой стороной,
+     * пул не выдаёт: неактивный канал отбрасывается при получении из пула.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider shareitServerConnectionProvider(
+            @Value("${shareit-server.http.max-connections:200}") int maxConnections,
+            @Value("${shareit-server.http.max-pending-acquires:1000}") int maxPendingAcquires,
+            @Value("${shareit-server.http.pending-acquire-timeout:2s}") Duration pendingAcquireTimeout,
+            @Value("${shareit-server.http.idle-timeout:30s}") Duration idleTimeout,
+            @Value("${shareit-server.http.eviction-interval:10s}") Duration evictionInterval,
+            @Value("${shareit-server.http.max-life-time:5m}") Duration maxLifeTime) {
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxPendingAcquires)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(idleTimeout)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictionInterval)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public ClientHttpConnector shareitServerConnector(
+            ConnectionProvider shareitServerConnectionProvider,
+            @Value("${shareit-server.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-server.http.read-timeout:10s}") Duration readTimeout) {
+        HttpClient httpClient = HttpClient.create(shareitServerConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(readTimeout);
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    // Выключатель применяется ко всем WebClient.Builder, которые получают клиенты шлюза
+    @Bean
+    public WebClientCustomizer circuitBreakerWebClientCustomizer(CircuitBreaker circuitBreaker) {
+        return builder -> builder.filter(circuitBreaker);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Объединяет одновременные одинаковые GET-запросы к серверу: пока запрос с тем же ключом выполняется,
+ * новые вызовы подписываются на него же и получают тот же ответ, а не идут на сервер отдельно.
+ * После завершения запроса ключ освобождается, так что ответы не кэшируются дольше, чем длится запрос.
+ * Счётчик shareit.gateway.coalescing с тегами route и result (upstream/collapsed) показывает,
+ * сколько вызовов ушло на сервер и сколько было объединено.
+ * <p>
+ * Объединяются только запросы, пришедшие на один экземпляр шлюза; при нескольких экземплярах каждый
+ * отправляет на сервер свой запрос. Устаревших данных это не добавляет: ответ не переживает запрос.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final ConcurrentMap<String, Mono<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+
+    public RequestCoalescer(MeterRegistry meterRegistry,
+                            @Value("${shareit-server.coalescing.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    public Mono<ResponseEntity<Object>> coalesce(String route, String key,
+                                                 Supplier<Mono<ResponseEntity<Object>>> request) {
+        if (!enabled) {
+            return request.get();
+        }
+        return Mono.defer(() -> {
+            boolean[] upstream = {false};
+            Mono<ResponseEntity<Object>> shared = inFlight.computeIfAbsent(key, k -> {
+                upstream[0] = true;
+                // share() отменяет запрос к серверу, только если от него отписались все клиенты
+                return request.get()
+                        .doFinally(signal -> inFlight.remove(k))
+                        .share();
+            });
+            counter(route, upstream[0] ? "upstream" : "collapsed").increment();
+            return shared;
+        });
+    }
+
+    private Counter counter(String route, String result) {
+        return Counter.builder("shareit.gateway.coalescing")
+                .description("Одинаковые GET-запросы, отправленные на сервер или объединённые с уже выполняющимся")
+                .tag("route", route)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,178 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Ограниченный по размеру кэш ответов сервера на GET-запросы. Ключ включает маршрут, путь, параметры
+ * и X-Sharer-User-Id, поэтому ответ одного пользователя не попадает к другому. Время свежести задаётся
+ * для каждого маршрута свойством {@code shareit-server.cache.ttl.<маршрут>}, например
+ * {@code shareit-server.cache.ttl.items.get}.
+ * <p>
+ * Устаревший ответ не удаляется сразу, а перепроверяется на сервере по сохранённому ETag: если сервер
+ * ответил 304, клиенту отдаётся сохранённое тело. Если клиент сам прислал If-None-Match, совпадающий
+ * с ETag ответа, шлюз возвращает 304 без тела.
+ * <p>
+ * Маршруты объединены в группы по первой части имени (items, requests, bookings). Изменяющие запросы
+ * сбрасывают записи затронутых групп; ответ, запрошенный до сброса, после него в кэш не попадает.
+ * <p>
+ * Кэш локален для экземпляра шлюза: сбрасываются только записи того экземпляра, через который прошёл
+ * изменяющий запрос. При нескольких экземплярах шлюза остальные отдают прежний ответ до истечения времени
+ * свежести маршрута, после чего перепроверяют его на сервере по ETag. Поэтому время свежести выбирается
+ * как допустимая задержка видимости изменений, либо кэш выключается (shareit-server.cache.enabled=false).
+ */
+@Component
+public class ResponseCache {
+
+    private static final String TTL_PROPERTY = "shareit-server.cache.ttl.";
+
+    private final Cache<String, CachedResponse> cache;
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final Map<String, Duration> ttls = new ConcurrentHashMap<>();
+
+    private final Environment environment;
+
+    private final Duration defaultTtl;
+
+    private final boolean enabled;
+
+    public ResponseCache(MeterRegistry meterRegistry, Environment environment,
+                         @Value("${shareit-server.cache.enabled:true}") boolean enabled,
+                         @Value("${shareit-server.cache.maximum-size:10000}") long maximumSize,
+                         @Value("${shareit-server.cache.default-ttl:10s}") Duration defaultTtl,
+                         @Value("${shareit-server.cache.max-stale:10m}") Duration maxStale) {
+        this.environment = environment;
+        this.enabled = enabled;
+        this.defaultTtl = defaultTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(maxStale)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-responses");
+    }
+
+    /**
+     * Возвращает ответ из кэша или выполняет запрос. Функция запроса получает значение If-None-Match,
+     * которое нужно передать серверу: ETag сохранённого ответа или заголовок клиента, если ответа в кэше нет.
+     */
+    public Mono<ResponseEntity<Object>> get(String route, String key, @Nullable String ifNoneMatch,
+                                            Function<String, Mono<ResponseEntity<Object>>> request) {
+        if (!enabled) {
+            return request.apply(ifNoneMatch);
+        }
+        return Mono.defer(() -> {
+            String cacheKey = route + " " + key;
+            CachedResponse cached = cache.getIfPresent(cacheKey);
+            if (cached != null && cached.isFresh()) {
+                return Mono.just(cached.toResponse(ifNoneMatch));
+            }
+
+            String group = group(route);
+            long generation = generation(group).get();
+            return request.apply(cached != null && cached.etag != null ? cached.etag : ifNoneMatch)
+                    .map(response -> {
+                        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+                            response = cached.response;
+                        } else if (response.getStatusCode() != HttpStatus.OK) {
+                            return response;
+                        }
+                        return store(route, cacheKey, group, generation, response).toResponse(ifNoneMatch);
+                    });
+        });
+    }
+
+    public void evict(String... groups) {
+        if (!enabled) {
+            return;
+        }
+        for (String group : groups) {
+            generation(group).incrementAndGet();
+            cache.asMap().keySet().removeIf(key -> key.startsWith(group + "."));
+        }
+    }
+
+    private CachedResponse store(String route, String cacheKey, String group, long generation,
+                                 ResponseEntity<Object> response) {
+        CachedResponse cached = new CachedResponse(response, System.nanoTime() + ttl(route).toNanos());
+        if (generation(group).get() == generation) {
+            cache.put(cacheKey, cached);
+            // Сброс мог произойти между проверкой и записью
+            if (generation(group).get() != generation) {
+                cache.invalidate(cacheKey);
+            }
+        }
+        return cached;
+    }
+
+    private Duration ttl(String route) {
+        return ttls.computeIfAbsent(route,
+                r -> environment.getProperty(TTL_PROPERTY + r, Duration.class, defaultTtl));
+    }
+
+    private AtomicLong generation(String group) {
+        return generations.computeIfAbsent(group, g -> new AtomicLong());
+    }
+
+    private static String group(String route) {
+        int dot = route.indexOf('.');
+        return dot < 0 ? route : route.substring(0, dot);
+    }
+
+    private static final class CachedResponse {
+
+        private final ResponseEntity<Object> response;
+
+        @Nullable
+        private final String etag;
+
+        private final long freshUntil;
+
+        private CachedResponse(ResponseEntity<Object> response, long freshUntil) {
+            this.response = response;
+            this.etag = response.getHeaders().getETag();
+            this.freshUntil = freshUntil;
+        }
+
+        private boolean isFresh() {
+            return System.nanoTime() - freshUntil < 0;
+        }
+
+        private ResponseEntity<Object> toResponse(@Nullable String ifNoneMatch) {
+            if (etag != null && ifNoneMatch != null && matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return response;
+        }
+
+        // If-None-Match может содержать несколько ETag через запятую, в том числе слабых (W/"...")
+        private boolean matches(String ifNoneMatch) {
+            String tag = stripWeak(etag);
+            return Arrays.stream(ifNoneMatch.split(","))
+                    .map(String::trim)
+                    .anyMatch(t -> t.equals("*") || stripWeak(t).equals(tag));
+        }
+
+        private static String stripWeak(String etag) {
+            return etag.startsWith("W/") ? etag.substring(2) : etag;
+        }
+    }
+}
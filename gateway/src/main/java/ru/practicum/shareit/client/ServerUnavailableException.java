@@ -0,0 +1,15 @@
+package ru.practicum.shareit.client;
+
+public class ServerUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServerUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Перекодирование ответа сервера из Smile в JSON по токенам, без построения дерева или объектов DTO.
+ */
+final class SmileTranscoder {
+
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory();
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private SmileTranscoder() {
+    }
+
+    static byte[] toJson(byte[] smile) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(smile.length * 2);
+        try (JsonParser parser = SMILE_FACTORY.createParser(smile);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentEvent(parser);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
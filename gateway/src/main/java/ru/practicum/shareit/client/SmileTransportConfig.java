@@ -0,0 +1,43 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.ClientRequest;
+
+import java.util.List;
+
+/**
+ * При shareit-server.transport=smile шлюз обменивается с сервером DTO в двоичном формате Smile вместо JSON:
+ * тела запросов кодируются в Smile, у сервера запрашиваются ответы в Smile. Клиенты шлюза по-прежнему
+ * получают JSON - ответ перекодируется в BaseClient потоково, без разбора в объекты.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit-server.transport", havingValue = "smile")
+public class SmileTransportConfig {
+
+    static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Bean
+    public WebClientCustomizer smileTransportWebClientCustomizer(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        // Кодировщик Smile по умолчанию не знает настроек Spring Boot (даты записывались бы массивами).
+        // Типы содержимого указываются явно: без них кодировщик с переданным ObjectMapper принимает только JSON
+        Jackson2SmileEncoder encoder = new Jackson2SmileEncoder(
+                objectMapperBuilder.factory(new SmileFactory()).build(), SMILE);
+        return builder -> builder
+                .codecs(codecs -> codecs.defaultCodecs().jackson2SmileEncoder(encoder))
+                .filter((request, next) -> next.exchange(ClientRequest.from(request)
+                        .headers(headers -> {
+                            if (MediaType.APPLICATION_JSON.equals(headers.getContentType())) {
+                                headers.setContentType(SMILE);
+                            }
+                            headers.setAccept(List.of(SMILE, MediaType.APPLICATION_JSON));
+                        })
+                        .build()));
+    }
+}
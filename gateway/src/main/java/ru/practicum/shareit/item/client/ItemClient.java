@@ -1,60 +1,81 @@
 package ru.practicum.shareit.item.client;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.item.dto.CommentTextDto;
 import ru.practicum.shareit.item.dto.ItemCreationDto;
+import ru.practicum.shareit.ratelimit.Bulkheads;
+import reactor.core.publisher.Mono;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      ClientHttpConnector connector, RequestCoalescer coalescer, ResponseCache responseCache,
+                      Bulkheads bulkheads) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(connector)
+                        .build(),
+                coalescer,
+                responseCache,
+                bulkheads.get("items")
         );
+        setRouteBulkhead("items.search", bulkheads.get("items.search"));
     }
 
-    public ResponseEntity<Object> getOwnerItems(long userId, long from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getOwnerItems(long userId, long from, int size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("?from={from}&size={size}", userId, parameters);
+        ));
+        return get(withCursor("?from={from}&size={size}", parameters, cursor), userId, parameters);
     }
 
-    public ResponseEntity<Object> getItemById(long itemId, long userId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> getItemById(long itemId, long userId, String ifNoneMatch) {
+        return getCached("items.get", "/" + itemId, userId, null, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> createItem(ItemCreationDto itemDto, long userId) {
-        return post("", userId, itemDto);
+    public Mono<ResponseEntity<Object>> createItem(ItemCreationDto itemDto, long userId) {
+        return evicting(post("", userId, itemDto), "items", "requests");
     }
 
-    public ResponseEntity<Object> updateItem(long itemId, ItemCreationDto patchDto, long userId) {
-        return patch("/" + itemId, userId, patchDto);
+    public Mono<ResponseEntity<Object>> updateItem(long itemId, ItemCreationDto patchDto, long userId) {
+        return evicting(patch("/" + itemId, userId, patchDto), "items", "requests");
     }
 
-    public ResponseEntity<Object> searchItem(String text, long from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> searchItem(String text, long from, int size, String cursor, String sort) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size,
-                "text", text
+                "text", text,
+                "sort", sort
+        ));
+        return getCoalesced("items.search",
+                withCursor("/search?from={from}&size={size}&text={text}&sort={sort}", parameters, cursor), null,
+                parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> suggestItemNames(String prefix, int size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
         );
-        return get("/search?from={from}&size={size}&text={text}", null, parameters);
+        return getCoalesced("items.suggest", "/suggest?prefix={prefix}&size={size}", null, parameters);
     }
 
-    public ResponseEntity<Object> addComment(CommentTextDto dto, long itemId, long userId) {
-        return post("/" + itemId + "/comment", userId, dto);
+    public Mono<ResponseEntity<Object>> addComment(CommentTextDto dto, long itemId, long userId) {
+        return evicting(post("/" + itemId + "/comment", userId, dto), "items");
     }
 }
@@ -8,11 +8,16 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.client.ItemClient;
 import ru.practicum.shareit.item.dto.CommentTextDto;
 import ru.practicum.shareit.item.dto.ItemCreationDto;
+import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+
 @RestController
 @RequestMapping("/items")
 @Validated
@@ -25,47 +30,65 @@ public class ItemController {
     private static final String HEADER_NAME = "X-Sharer-User-Id";
 
     @GetMapping
-    public ResponseEntity<Object> getAllItems(@RequestHeader(HEADER_NAME) long userId,
-                                              @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                              @RequestParam(defaultValue = "10") @Positive int size) {
-        log.info("Запрос списка вещей пользователем userId = {}. Параметры from = {}, size = {}", userId, from, size);
-        return itemClient.getOwnerItems(userId, from, size);
+    public Mono<ResponseEntity<Object>> getAllItems(@RequestHeader(HEADER_NAME) long userId,
+                                                    @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                    @RequestParam(defaultValue = "10") @Positive int size,
+                                                    @RequestParam(required = false) String cursor) {
+        log.info("Запрос списка вещей пользователем userId = {}. Параметры from = {}, size = {}, cursor = {}",
+                userId, from, size, cursor);
+        return itemClient.getOwnerItems(userId, from, size, cursor);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@RequestHeader(value = HEADER_NAME, required = false) long userId,
-                                              @PathVariable long itemId) {
+    public Mono<ResponseEntity<Object>> getItemById(@RequestHeader(value = HEADER_NAME, required = false) long userId,
+                                                    @PathVariable long itemId,
+                                                    @RequestHeader(value = IF_NONE_MATCH, required = false)
+                                                    String ifNoneMatch) {
         log.info("Запрос вещи itemId = {} пользователем userId = {}", itemId, userId);
-        return itemClient.getItemById(itemId, userId);
+        return itemClient.getItemById(itemId, userId, ifNoneMatch);
     }
 
     @PostMapping
-    public ResponseEntity<Object> createItem(@RequestHeader(HEADER_NAME) long userId,
-                                             @Valid @RequestBody ItemCreationDto itemDto) {
+    public Mono<ResponseEntity<Object>> createItem(@RequestHeader(HEADER_NAME) long userId,
+                                                   @Valid @RequestBody ItemCreationDto itemDto) {
         log.info("Добавление вещи itemName = {} пользователем userId = {}", itemDto.getName(), userId);
         return itemClient.createItem(itemDto, userId);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestHeader(HEADER_NAME) long userId,
-                                             @PathVariable long itemId,
-                                             @RequestBody ItemCreationDto itemDto) {
+    public Mono<ResponseEntity<Object>> updateItem(@RequestHeader(HEADER_NAME) long userId,
+                                                   @PathVariable long itemId,
+                                                   @RequestBody ItemCreationDto itemDto) {
         log.info("Обновление вещи itemId = {} пользователем userId = {}", itemId, userId);
         return itemClient.updateItem(itemId, itemDto, userId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItem(@RequestParam String text,
-                                             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                             @RequestParam(defaultValue = "10") @Positive int size) {
-        log.info("Поиск вещи по запросу text = \"{}\". Параметры from = {}, size = {}", text, from, size);
-        return itemClient.searchItem(text, from, size);
+    public Mono<ResponseEntity<Object>> searchItem(@RequestParam String text,
+                                                   @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                   @RequestParam(defaultValue = "10") @Positive int size,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "id")
+                                                   @Pattern(regexp = "(?i)id|relevance",
+                                                           message = "Unknown sort: ${validatedValue}")
+                                                   String sort) {
+        log.info("Поиск вещи по запросу text = \"{}\". Параметры from = {}, size = {}, cursor = {}, sort = {}",
+                text, from, size, cursor, sort);
+        return itemClient.searchItem(text, from, size, cursor, sort.toUpperCase());
+    }
+
+    @GetMapping("/suggest")
+    public Mono<ResponseEntity<Object>> suggestItemNames(@RequestParam String prefix,
+                                                         @RequestParam(defaultValue = "10") @Positive @Max(50)
+                                                         int size) {
+        log.info("Подсказка названий вещей по началу prefix = \"{}\". Параметр size = {}", prefix, size);
+        return itemClient.suggestItemNames(prefix, size);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader(HEADER_NAME) long userId,
-                                             @PathVariable long itemId,
-                                             @Valid @RequestBody CommentTextDto commentDto) {
+    public Mono<ResponseEntity<Object>> addComment(@RequestHeader(HEADER_NAME) long userId,
+                                                   @PathVariable long itemId,
+                                                   @Valid @RequestBody CommentTextDto commentDto) {
         log.info("Добавление комментария вещи itemId = {} пользователем userId = {}", itemId, userId);
         return itemClient.addComment(commentDto, itemId, userId);
     }
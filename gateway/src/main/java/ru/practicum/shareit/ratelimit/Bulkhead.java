@@ -0,0 +1,64 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ограничение числа одновременных запросов к серверу по одному маршруту. Запрос сверх лимита не ждёт
+ * в очереди, а сразу завершается TooManyRequestsException, чтобы один маршрут не занимал все соединения
+ * пула и потоки сервера.
+ */
+public class Bulkhead {
+
+    private final String name;
+
+    private final int maxConcurrent;
+
+    private final long retryAfterSeconds;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final Counter rejected;
+
+    Bulkhead(String name, int maxConcurrent, long retryAfterSeconds, Counter rejected) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.rejected = rejected;
+    }
+
+    public <T> Mono<T> call(Supplier<Mono<T>> request) {
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                rejected.increment();
+                return Mono.error(new TooManyRequestsException("Превышено число одновременных запросов к "
+                        + name + ", повторите через " + retryAfterSeconds + " с", retryAfterSeconds));
+            }
+            try {
+                return request.get().doFinally(signal -> active.decrementAndGet());
+            } catch (RuntimeException e) {
+                active.decrementAndGet();
+                throw e;
+            }
+        });
+    }
+
+    int getActive() {
+        return active.get();
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = active.get();
+            if (current >= maxConcurrent) {
+                return false;
+            }
+            if (active.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+}
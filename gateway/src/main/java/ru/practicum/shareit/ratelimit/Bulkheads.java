@@ -0,0 +1,60 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реестр ограничителей одновременных запросов по маршрутам. Лимит задаётся свойством
+ * {@code shareit-server.bulkhead.<маршрут>.max-concurrent}. Метрики: shareit.gateway.bulkhead.active
+ * и shareit.gateway.bulkhead.rejected с тегом route.
+ */
+@Component
+public class Bulkheads {
+
+    private static final String PROPERTY_PREFIX = "shareit-server.bulkhead.";
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final Environment environment;
+
+    private final int defaultMaxConcurrent;
+
+    private final long retryAfterSeconds;
+
+    public Bulkheads(MeterRegistry meterRegistry, Environment environment,
+                     @Value("${shareit-server.bulkhead.default-max-concurrent:100}") int defaultMaxConcurrent,
+                     @Value("${shareit-server.bulkhead.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.defaultMaxConcurrent = defaultMaxConcurrent;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Bulkhead get(String route) {
+        return bulkheads.computeIfAbsent(route, this::create);
+    }
+
+    private Bulkhead create(String route) {
+        int maxConcurrent = environment.getProperty(PROPERTY_PREFIX + route + ".max-concurrent", Integer.class,
+                defaultMaxConcurrent);
+        Counter rejected = Counter.builder("shareit.gateway.bulkhead.rejected")
+                .description("Запросы, отклонённые из-за превышения числа одновременных запросов")
+                .tag("route", route)
+                .register(meterRegistry);
+        Bulkhead bulkhead = new Bulkhead(route, maxConcurrent, retryAfterSeconds, rejected);
+        Gauge.builder("shareit.gateway.bulkhead.active", bulkhead, Bulkhead::getActive)
+                .description("Выполняющиеся запросы к серверу")
+                .tag("route", route)
+                .register(meterRegistry);
+        return bulkhead;
+    }
+}
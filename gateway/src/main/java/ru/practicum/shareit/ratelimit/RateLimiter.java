@@ -0,0 +1,97 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение частоты запросов к шлюзу по корзине токенов для каждого пользователя (X-Sharer-User-Id),
+ * а для запросов без заголовка - для IP-адреса клиента. Поиск и подсказки вещей ограничиваются отдельной,
+ * более строгой корзиной. Корзины хранятся в Caffeine и удаляются после периода неактивности.
+ * Отклонённые запросы считает счётчик shareit.gateway.rate-limit.rejected с тегом limit (default/search).
+ */
+@Component
+public class RateLimiter {
+
+    private static final String SEARCH_PATH = "/items/search";
+    private static final String SUGGEST_PATH = "/items/suggest";
+    private static final String ACTUATOR_PATH = "/actuator";
+
+    private final Cache<String, TokenBucket> buckets;
+
+    private final boolean enabled;
+
+    private final double permitsPerSecond;
+
+    private final int burst;
+
+    private final double searchPermitsPerSecond;
+
+    private final int searchBurst;
+
+    private final Counter rejected;
+
+    private final Counter searchRejected;
+
+    public RateLimiter(MeterRegistry meterRegistry,
+                       @Value("${shareit-server.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${shareit-server.rate-limit.requests-per-second:20}") double permitsPerSecond,
+                       @Value("${shareit-server.rate-limit.burst:40}") int burst,
+                       @Value("${shareit-server.rate-limit.search.requests-per-second:5}")
+                       double searchPermitsPerSecond,
+                       @Value("${shareit-server.rate-limit.search.burst:10}") int searchBurst,
+                       @Value("${shareit-server.rate-limit.max-clients:100000}") long maxClients,
+                       @Value("${shareit-server.rate-limit.idle-timeout:10m}") Duration idleTimeout) {
+        this.enabled = enabled;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.searchPermitsPerSecond = searchPermitsPerSecond;
+        this.searchBurst = searchBurst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        this.rejected = rejectedCounter(meterRegistry, "default");
+        this.searchRejected = rejectedCounter(meterRegistry, "search");
+    }
+
+    /**
+     * Выдаёт токен на запрос. Возвращает 0, если запрос можно выполнять,
+     * иначе число секунд, через которое стоит повторить запрос (для заголовка Retry-After).
+     */
+    public long acquire(String path, @Nullable String userId, String remoteAddress) {
+        if (!enabled || path.startsWith(ACTUATOR_PATH)) {
+            return 0;
+        }
+        boolean search = path.startsWith(SEARCH_PATH) || path.startsWith(SUGGEST_PATH);
+        String key = (search ? "search " : "default ") + (userId != null ? "user " + userId : "ip " + remoteAddress);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key, k -> search
+                ? new TokenBucket(searchPermitsPerSecond, searchBurst, now)
+                : new TokenBucket(permitsPerSecond, burst, now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos == 0) {
+            return 0;
+        }
+        (search ? searchRejected : rejected).increment();
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    public static String rejectionMessage(long retryAfterSeconds) {
+        return "Слишком много запросов, повторите через " + retryAfterSeconds + " с";
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String limit) {
+        return Counter.builder("shareit.gateway.rate-limit.rejected")
+                .description("Запросы, отклонённые ограничением частоты")
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+}
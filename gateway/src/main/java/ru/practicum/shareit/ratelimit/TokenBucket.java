@@ -0,0 +1,41 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзина токенов без блокировок: состояние хранится в одном AtomicLong как момент (в наносекундах System.nanoTime),
+ * к которому корзина снова наполнится полностью с учётом выданных токенов. Каждый запрос сдвигает этот момент
+ * на интервал одного токена; если сдвиг выходит за ёмкость корзины, запрос отклоняется.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+
+    private final long capacityNanos;
+
+    private final AtomicLong fullAt;
+
+    TokenBucket(double permitsPerSecond, int burst, long now) {
+        this.intervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.capacityNanos = intervalNanos * burst;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Возвращает 0, если токен выдан, иначе время в наносекундах до появления следующего токена.
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long base = current - now < 0 ? now : current;
+            long next = base + intervalNanos;
+            long waitNanos = next - capacityNanos - now;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
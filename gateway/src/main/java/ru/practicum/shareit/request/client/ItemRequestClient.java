@@ -1,46 +1,56 @@
 package ru.practicum.shareit.request.client;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.request.dto.ItemRequestCreationDto;
+import reactor.core.publisher.Mono;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                             ClientHttpConnector connector, RequestCoalescer coalescer,
+                             ResponseCache responseCache) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .clientConnector(connector)
+                        .build(),
+                coalescer,
+                responseCache,
+                null
         );
     }
 
-    public ResponseEntity<Object> addRequest(ItemRequestCreationDto itemRequestDto, long userId) {
-        return post("", userId, itemRequestDto);
+    public Mono<ResponseEntity<Object>> addRequest(ItemRequestCreationDto itemRequestDto, long userId) {
+        return evicting(post("", userId, itemRequestDto), "requests");
     }
 
-    public ResponseEntity<Object> getListOwnRequests(long userId) {
+    public Mono<ResponseEntity<Object>> getListOwnRequests(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getRequestById(long requestId, long userId) {
+    public Mono<ResponseEntity<Object>> getRequestById(long requestId, long userId) {
         return get("/" + requestId, userId);
     }
 
-    public ResponseEntity<Object> getRequestsList(long userId, long from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getRequestsList(long userId, long from, int size, String cursor,
+                                                        String ifNoneMatch) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("/all?from={from}&size={size}", userId, parameters);
+        ));
+        return getCached("requests.all", withCursor("/all?from={from}&size={size}", parameters, cursor), userId,
+                parameters, ifNoneMatch);
     }
 }
@@ -7,11 +7,14 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.client.ItemRequestClient;
 import ru.practicum.shareit.request.dto.ItemRequestCreationDto;
+import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+
 @RestController
 @RequestMapping(path = "/requests")
 @Validated
@@ -24,32 +27,35 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> addRequest(@RequestHeader(HEADER_NAME) long requestorId,
-                                             @Valid @RequestBody ItemRequestCreationDto itemRequestDto) {
+    public Mono<ResponseEntity<Object>> addRequest(@RequestHeader(HEADER_NAME) long requestorId,
+                                                   @Valid @RequestBody ItemRequestCreationDto itemRequestDto) {
         log.info("Создание запроса вещи itemRequestDescription = {} пользователем userId = {}",
                 itemRequestDto.getDescription(), requestorId);
         return itemRequestClient.addRequest(itemRequestDto, requestorId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getListOwnRequests(@RequestHeader(HEADER_NAME) long requestorId) {
+    public Mono<ResponseEntity<Object>> getListOwnRequests(@RequestHeader(HEADER_NAME) long requestorId) {
         log.info("Запрошен список собственных запросов вещей пользователем userId = {}", requestorId);
         return itemRequestClient.getListOwnRequests(requestorId);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(@RequestHeader(HEADER_NAME) long userId,
-                                                 @PathVariable long requestId) {
+    public Mono<ResponseEntity<Object>> getRequestById(@RequestHeader(HEADER_NAME) long userId,
+                                                       @PathVariable long requestId) {
         log.info("Запрошен запрос вещей requestId = {} пользователем userId = {}", requestId, userId);
         return itemRequestClient.getRequestById(requestId, userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getRequestsList(@RequestHeader(HEADER_NAME) long requestorId,
-                                                  @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                                  @RequestParam(defaultValue = "10") @Positive int size) {
-        log.info("Запрошен список всех запросов вещей пользователем userId = {}. Параметры from = {}, size = {}",
-                requestorId, from, size);
-        return itemRequestClient.getRequestsList(requestorId, from, size);
+    public Mono<ResponseEntity<Object>> getRequestsList(@RequestHeader(HEADER_NAME) long requestorId,
+                                                        @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                        @RequestParam(defaultValue = "10") @Positive int size,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestHeader(value = IF_NONE_MATCH, required = false)
+                                                        String ifNoneMatch) {
+        log.info("Запрошен список всех запросов вещей пользователем userId = {}. Параметры from = {}, size = {}, "
+                + "cursor = {}", requestorId, from, size, cursor);
+        return itemRequestClient.getRequestsList(requestorId, from, size, cursor, ifNoneMatch);
     }
 }
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.client;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Выключатель в собранном шлюзе: после серии ответов 500 сервера-заглушки шлюз сразу отвечает 503
+ * с Retry-After, не обращаясь к серверу.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "shareit-server.cache.enabled=false",
+        "shareit-server.rate-limit.enabled=false",
+        "shareit-server.circuit-breaker.window-size=4",
+        "shareit-server.circuit-breaker.minimum-calls=4",
+        "shareit-server.circuit-breaker.open-duration=30s"
+})
+class CircuitBreakerGatewayTest {
+
+    private static MockWebServer server;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterAll
+    static void stopServer() throws IOException {
+        server.shutdown();
+    }
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.getPort());
+    }
+
+    @Test
+    void getItem_whenServerKeepsFailing_thenServiceUnavailableWithRetryAfter() {
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+            assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, getItem().getStatusCode());
+        }
+
+        ResponseEntity<String> response = getItem();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("30", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(4, server.getRequestCount());
+    }
+
+    private ResponseEntity<String> getItem() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", "1");
+        return restTemplate.exchange("/items/1", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}
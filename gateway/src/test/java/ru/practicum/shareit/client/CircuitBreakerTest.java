@@ -0,0 +1,245 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CircuitBreakerTest {
+
+    private static final int WINDOW_SIZE = 4;
+    private static final Duration SLOW_CALL = Duration.ofMillis(500);
+    private static final Duration OPEN = Duration.ofMillis(500);
+
+    private final CountDownLatch hold = new CountDownLatch(1);
+
+    private MockWebServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreaker circuitBreaker;
+    private StubServerClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        // /fail отвечает 500, /hold ждёт hold, параметр delay задерживает ответ на указанное число миллисекунд
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if (request.getRequestUrl().encodedPath().equals("/hold")) {
+                    hold.await(5, TimeUnit.SECONDS);
+                }
+                String delay = request.getRequestUrl().queryParameter("delay");
+                if (delay != null) {
+                    Thread.sleep(Long.parseLong(delay));
+                }
+                if (request.getRequestUrl().encodedPath().equals("/fail")) {
+                    return new MockResponse().setResponseCode(500);
+                }
+                return new MockResponse().setHeader("Content-Type", "application/json").setBody("[]");
+            }
+        });
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new CircuitBreaker(meterRegistry, true, WINDOW_SIZE, WINDOW_SIZE, 50, SLOW_CALL, OPEN, 2);
+        client = client(circuitBreaker);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        hold.countDown();
+        server.shutdown();
+    }
+
+    @Test
+    void filter_whenFailureRateBelowThresholdOrTooFewCalls_thenStaysClosed() {
+        call("/fail");
+        call("/fail");
+        call("/fail");
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        CircuitBreaker lenient = new CircuitBreaker(meterRegistry, true, WINDOW_SIZE, WINDOW_SIZE, 75, SLOW_CALL,
+                OPEN, 2);
+        StubServerClient lenientClient = client(lenient);
+        lenientClient.get("/fail").block();
+        lenientClient.get("/fail").block();
+        lenientClient.get("/ok").block();
+        lenientClient.get("/ok").block();
+
+        assertEquals(CircuitBreaker.State.CLOSED, lenient.getState());
+    }
+
+    @Test
+    void filter_whenFailureRateReached_thenOpens() {
+        call("/ok");
+        call("/fail");
+        call("/ok");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, call("/fail").getStatusCode());
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, transitions("CLOSED", "OPEN"));
+        assertEquals(2, calls("failure"));
+        assertEquals(2, calls("success"));
+    }
+
+    @Test
+    void filter_whenSlowCalls_thenOpens() {
+        long delay = SLOW_CALL.toMillis() + 100;
+        call("/ok");
+        call("/ok");
+        call("/ok?delay=" + delay);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        assertEquals(HttpStatus.OK, call("/ok?delay=" + delay).getStatusCode());
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void filter_whenOpen_thenRejectedWithoutServerCall() {
+        open();
+        int requests = server.getRequestCount();
+
+        ServerUnavailableException e = assertThrows(ServerUnavailableException.class, () -> call("/ok"));
+
+        assertEquals(1, e.getRetryAfterSeconds());
+        assertEquals(requests, server.getRequestCount());
+        assertEquals(1, calls("rejected"));
+
+        CircuitBreaker longOpen = new CircuitBreaker(meterRegistry, true, 1, 1, 50, SLOW_CALL,
+                Duration.ofSeconds(10), 1);
+        StubServerClient longOpenClient = client(longOpen);
+        longOpenClient.get("/fail").block();
+
+        e = assertThrows(ServerUnavailableException.class, () -> longOpenClient.get("/ok").block());
+        assertEquals(10, e.getRetryAfterSeconds());
+    }
+
+    @Test
+    void filter_whenHalfOpenProbeFails_thenReopens() throws InterruptedException {
+        open();
+        waitOpenDuration();
+
+        call("/fail");
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, transitions("HALF_OPEN", "OPEN"));
+        assertThrows(ServerUnavailableException.class, () -> call("/ok"));
+    }
+
+    @Test
+    void filter_whenHalfOpenProbesSucceed_thenCloses() throws InterruptedException {
+        open();
+        waitOpenDuration();
+
+        call("/ok");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        call("/ok");
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(1, transitions("HALF_OPEN", "CLOSED"));
+        // После замыкания окно начинается заново: одной неудачи недостаточно
+        call("/fail");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void filter_whenHalfOpenProbesInFlight_thenOtherCallsRejected() throws Exception {
+        open();
+        waitOpenDuration();
+
+        CompletableFuture<ResponseEntity<Object>> first = callAsync("/ok?delay=200");
+        CompletableFuture<ResponseEntity<Object>> second = callAsync("/ok?delay=200");
+
+        assertThrows(ServerUnavailableException.class, () -> call("/ok"));
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void filter_whenResultFromPreviousState_thenIgnored() throws Exception {
+        // Запрос начат в замкнутом состоянии, а завершается (медленно, то есть неудачно) во время пробных
+        // запросов: если бы он учитывался, выключатель снова разомкнулся бы
+        CompletableFuture<ResponseEntity<Object>> stale = callAsync("/hold");
+        open();
+        waitOpenDuration();
+        call("/ok");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        hold.countDown();
+        stale.get(5, TimeUnit.SECONDS);
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals(0, transitions("HALF_OPEN", "OPEN"));
+        assertEquals(WINDOW_SIZE + 1, calls("failure"));
+
+        call("/ok");
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void filter_whenDisabled_thenNeverOpens() {
+        CircuitBreaker disabled = new CircuitBreaker(meterRegistry, false, 1, 1, 1, SLOW_CALL, OPEN, 1);
+        StubServerClient disabledClient = client(disabled);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, disabledClient.get("/fail").block().getStatusCode());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, disabled.getState());
+    }
+
+    private void open() {
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            call("/fail");
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private static void waitOpenDuration() throws InterruptedException {
+        Thread.sleep(OPEN.toMillis() + 50);
+    }
+
+    private StubServerClient client(CircuitBreaker breaker) {
+        return new StubServerClient(WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.newConnection()))
+                .filter(breaker), server, null, null);
+    }
+
+    private ResponseEntity<Object> call(String path) {
+        return client.get(path).block();
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> callAsync(String path) {
+        return client.get(path).toFuture();
+    }
+
+    private double transitions(String from, String to) {
+        return meterRegistry.counter("shareit.gateway.circuit-breaker.transitions", "from", from, "to", to).count();
+    }
+
+    private double calls(String result) {
+        return meterRegistry.counter("shareit.gateway.circuit-breaker.calls", "result", result).count();
+    }
+}
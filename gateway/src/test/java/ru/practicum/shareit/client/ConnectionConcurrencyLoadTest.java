@@ -0,0 +1,186 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнительная нагрузка на пул соединений шлюза: одни и те же запросы к медленному серверу отправляются
+ * из небольшого фиксированного пула потоков сначала с блокировкой потока до ответа (как делал RestTemplate
+ * до перехода на WebClient), затем без блокировки. Сервер-заглушка считает наибольшее число одновременно
+ * обрабатываемых запросов.
+ * <p>
+ * Второй сценарий - устойчивая пропускная способность: load.concurrency запросов постоянно в полёте
+ * в течение load.duration-ms, сначала через пул прежнего размера по умолчанию (2 соединения на маршрут
+ * у PoolingHttpClientConnectionManager), затем через настроенный общий пул.
+ * <p>
+ * Размеры нагрузки задаются системными свойствами load.threads, load.requests, load.delay-ms,
+ * load.concurrency и load.duration-ms, например
+ * {@code mvn -pl gateway test -Dtest=ConnectionConcurrencyLoadTest -Dload.threads=8 -Dload.requests=800}.
+ */
+@Slf4j
+class ConnectionConcurrencyLoadTest {
+
+    private static final int THREADS = Integer.getInteger("load.threads", 4);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 80);
+    private static final Duration DELAY = Duration.ofMillis(Integer.getInteger("load.delay-ms", 200));
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 50);
+    private static final Duration DURATION = Duration.ofMillis(Integer.getInteger("load.duration-ms", 3000));
+    private static final int DEFAULT_MAX_PER_ROUTE = 2;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private DisposableServer server;
+    private ConnectionProvider connectionProvider;
+    private LoadClient client;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .port(0)
+                .handle((request, response) -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    // Запрос перестаёт считаться до отправки ответа, иначе следующий запрос того же потока
+                    // может прийти раньше, чем счётчик уменьшится
+                    return Mono.delay(DELAY)
+                            .doOnNext(tick -> inFlight.decrementAndGet())
+                            .then(response.sendString(Mono.just("[]")).then());
+                })
+                .bindNow();
+        connectionProvider = connectionProvider(Math.max(REQUESTS, CONCURRENCY));
+        client = client(connectionProvider);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        connectionProvider.dispose();
+        server.disposeNow();
+    }
+
+    @Test
+    void nonBlockingClient_whenSmallThreadPool_thenTenTimesMoreConcurrentRequests() throws InterruptedException {
+        Result blocking = run(latch -> {
+            client.load().block();
+            latch.countDown();
+        });
+        Result nonBlocking = run(latch -> client.load().subscribe(response -> latch.countDown()));
+
+        log.info("Потоков: {}, запросов: {}, задержка сервера: {} мс", THREADS, REQUESTS, DELAY.toMillis());
+        log.info("С блокировкой: одновременно {}, {} мс, {} запросов/с",
+                blocking.maxConcurrent, blocking.millis, blocking.throughput());
+        log.info("Без блокировки: одновременно {}, {} мс, {} запросов/с",
+                nonBlocking.maxConcurrent, nonBlocking.millis, nonBlocking.throughput());
+
+        assertTrue(blocking.maxConcurrent <= THREADS,
+                "Одновременных запросов с блокировкой: " + blocking.maxConcurrent);
+        assertTrue(nonBlocking.maxConcurrent >= 10 * blocking.maxConcurrent,
+                "Одновременных запросов без блокировки: " + nonBlocking.maxConcurrent);
+    }
+
+    @Test
+    void sharedPool_whenSustainedLoad_thenHigherThroughputThanDefaultPool() {
+        ConnectionProvider defaultPool = connectionProvider(DEFAULT_MAX_PER_ROUTE);
+        long defaultPoolRequests;
+        try {
+            defaultPoolRequests = sustain(client(defaultPool));
+        } finally {
+            defaultPool.dispose();
+        }
+        long sharedPoolRequests = sustain(client);
+
+        long defaultPoolRps = defaultPoolRequests * 1000 / DURATION.toMillis();
+        long sharedPoolRps = sharedPoolRequests * 1000 / DURATION.toMillis();
+        log.info("Запросов в полёте: {}, {} мс, задержка сервера: {} мс", CONCURRENCY, DURATION.toMillis(),
+                DELAY.toMillis());
+        log.info("Пул {} соединения на маршрут: {} запросов/с", DEFAULT_MAX_PER_ROUTE, defaultPoolRps);
+        log.info("Общий пул: {} запросов/с", sharedPoolRps);
+
+        assertTrue(defaultPoolRps <= DEFAULT_MAX_PER_ROUTE * 1000 / DELAY.toMillis(),
+                "Запросов в секунду через пул по умолчанию: " + defaultPoolRps);
+        assertTrue(sharedPoolRps >= 10 * Math.max(defaultPoolRps, 1),
+                "Запросов в секунду через общий пул: " + sharedPoolRps);
+    }
+
+    // Число ответов за DURATION при CONCURRENCY запросах в полёте
+    private long sustain(LoadClient loadClient) {
+        Long completed = Flux.range(0, Integer.MAX_VALUE)
+                .flatMap(i -> loadClient.load(), CONCURRENCY)
+                .take(DURATION)
+                .count()
+                .block(DURATION.plusSeconds(30));
+        return completed == null ? 0 : completed;
+    }
+
+    private ConnectionProvider connectionProvider(int maxConnections) {
+        return new HttpClientConfig().shareitServerConnectionProvider(maxConnections, Math.max(REQUESTS, CONCURRENCY),
+                Duration.ofSeconds(30), Duration.ofSeconds(30), Duration.ofSeconds(10), Duration.ofMinutes(5));
+    }
+
+    private LoadClient client(ConnectionProvider provider) {
+        return new LoadClient(WebClient.builder()
+                .baseUrl("http://localhost:" + server.port())
+                .clientConnector(new HttpClientConfig().shareitServerConnector(provider, Duration.ofSeconds(2),
+                        Duration.ofSeconds(30)))
+                .build());
+    }
+
+    private Result run(Task task) throws InterruptedException {
+        maxInFlight.set(0);
+        CountDownLatch latch = new CountDownLatch(REQUESTS);
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            executor.execute(() -> task.run(latch));
+        }
+        assertTrue(latch.await(REQUESTS * DELAY.toMillis() + 30_000, TimeUnit.MILLISECONDS));
+        return new Result(maxInFlight.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private interface Task {
+        void run(CountDownLatch latch);
+    }
+
+    private static class Result {
+        private final int maxConcurrent;
+        private final long millis;
+
+        Result(int maxConcurrent, long millis) {
+            this.maxConcurrent = maxConcurrent;
+            this.millis = millis;
+        }
+
+        long throughput() {
+            return REQUESTS * 1000L / Math.max(millis, 1);
+        }
+    }
+
+    private static class LoadClient extends BaseClient {
+        LoadClient(WebClient webClient) {
+            super(webClient);
+        }
+
+        Mono<ResponseEntity<Object>> load() {
+            return get("/load");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Пул соединений шлюза вместо проверки соединения перед повторным использованием (validate-after-inactivity)
+ * закрывает соединения, простоявшие дольше idle-timeout или прожившие дольше max-life-time.
+ * Сервер-заглушка считает открытые и закрытые соединения.
+ */
+class ConnectionPoolEvictionTest {
+
+    private static final Duration IDLE_TIMEOUT = Duration.ofMillis(300);
+    private static final Duration EVICTION_INTERVAL = Duration.ofMillis(100);
+
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+
+    private DisposableServer server;
+    private ConnectionProvider connectionProvider;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .port(0)
+                // doOnConnection вызывается на каждый запрос, а соединения считаются по каналам
+                .doOnChannelInit((observer, channel, remoteAddress) -> {
+                    opened.incrementAndGet();
+                    channel.closeFuture().addListener(future -> closed.incrementAndGet());
+                })
+                .handle((request, response) -> response.sendString(Mono.just("[]")))
+                .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionProvider.dispose();
+        server.disposeNow();
+    }
+
+    @Test
+    void request_whenConnectionUsedRecently_thenReused() throws InterruptedException {
+        WebClient webClient = webClient(Duration.ofMinutes(5));
+
+        for (int i = 0; i < 3; i++) {
+            get(webClient);
+            // Соединение возвращается в пул уже после ответа, пауза не даёт следующему запросу открыть новое
+            Thread.sleep(50);
+        }
+
+        assertEquals(1, opened.get());
+    }
+
+    @Test
+    void request_whenConnectionIdleLongerThanIdleTimeout_thenEvictedInBackgroundAndNewOneOpened()
+            throws InterruptedException {
+        WebClient webClient = webClient(Duration.ofMinutes(5));
+        get(webClient);
+
+        Thread.sleep(IDLE_TIMEOUT.plus(EVICTION_INTERVAL).multipliedBy(3).toMillis());
+
+        // Простаивающее соединение закрыто фоновой очисткой ещё до следующего запроса
+        assertEquals(1, closed.get());
+        get(webClient);
+        assertEquals(2, opened.get());
+    }
+
+    @Test
+    void request_whenConnectionOlderThanMaxLifeTime_thenNewOneOpened() throws InterruptedException {
+        Duration maxLifeTime = Duration.ofMillis(200);
+        WebClient webClient = webClient(maxLifeTime);
+
+        // Запросы идут чаще idle-timeout, поэтому соединение сменяется только по max-life-time
+        long deadline = System.nanoTime() + maxLifeTime.multipliedBy(4).toNanos();
+        while (System.nanoTime() < deadline) {
+            get(webClient);
+            Thread.sleep(50);
+        }
+
+        assertTrue(opened.get() >= 2, "Открыто соединений: " + opened.get());
+    }
+
+    private WebClient webClient(Duration maxLifeTime) {
+        HttpClientConfig config = new HttpClientConfig();
+        connectionProvider = config.shareitServerConnectionProvider(10, 10, Duration.ofSeconds(2),
+                IDLE_TIMEOUT, EVICTION_INTERVAL, maxLifeTime);
+        return WebClient.builder()
+                .baseUrl("http://localhost:" + server.port())
+                .clientConnector(config.shareitServerConnector(connectionProvider, Duration.ofSeconds(2),
+                        Duration.ofSeconds(10)))
+                .build();
+    }
+
+    private static void get(WebClient webClient) {
+        webClient.get().uri("/items").retrieve().toBodilessEntity().block(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,160 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class RequestCoalescerTest {
+
+    private static final int CLIENTS = 10;
+    private static final long RESPONSE_DELAY_MILLIS = 1000;
+    private static final String ROUTE = "items.search";
+
+    private MockWebServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private StubServerClient client;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        // Ответ задерживается, чтобы все одновременные вызовы успели застать запрос выполняющимся
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                Thread.sleep(RESPONSE_DELAY_MILLIS);
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody("[\"" + request.getPath() + " " + request.getHeader("X-Sharer-User-Id") + "\"]");
+            }
+        });
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+        client = new StubServerClient(server, new RequestCoalescer(meterRegistry, true), null);
+        executor = Executors.newFixedThreadPool(CLIENTS);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        executor.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    void coalesce_whenConcurrentIdenticalRequests_thenOneUpstreamCall() throws Exception {
+        List<ResponseEntity<Object>> responses = concurrently(CLIENTS,
+                i -> client.getCoalesced(ROUTE, "/search?text={text}", 1L, Map.of("text", "дрель")));
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, count("upstream"));
+        assertEquals(CLIENTS - 1, count("collapsed"));
+        Set<String> bodies = new HashSet<>();
+        responses.forEach(response -> bodies.add(StubServerClient.body(response)));
+        assertEquals(1, bodies.size());
+    }
+
+    @Test
+    void coalesce_whenDifferentUsersOrParameters_thenSeparateUpstreamCalls() throws Exception {
+        List<Callable<Mono<ResponseEntity<Object>>>> requests = List.of(
+                () -> client.getCoalesced(ROUTE, "/search?text={text}", 1L, Map.of("text", "дрель")),
+                () -> client.getCoalesced(ROUTE, "/search?text={text}", 2L, Map.of("text", "дрель")),
+                () -> client.getCoalesced(ROUTE, "/search?text={text}", 1L, Map.of("text", "пила")),
+                () -> client.getCoalesced(ROUTE, "/search?text={text}", 1L, Map.of("text", "дрель")));
+
+        List<ResponseEntity<Object>> responses = concurrently(requests.size(), i -> requests.get(i).call());
+
+        assertEquals(3, server.getRequestCount());
+        assertEquals(3, count("upstream"));
+        assertEquals(1, count("collapsed"));
+        assertEquals(StubServerClient.body(responses.get(0)), StubServerClient.body(responses.get(3)));
+        assertEquals(3, Set.of(StubServerClient.body(responses.get(0)), StubServerClient.body(responses.get(1)),
+                StubServerClient.body(responses.get(2))).size());
+    }
+
+    @Test
+    void coalesce_whenUpstreamFails_thenEveryWaiterGetsErrorAndKeyReleased() {
+        RequestCoalescer coalescer = new RequestCoalescer(meterRegistry, true);
+        Sinks.One<ResponseEntity<Object>> upstream = Sinks.one();
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        Supplier<Mono<ResponseEntity<Object>>> request = () -> {
+            upstreamCalls.incrementAndGet();
+            return upstream.asMono();
+        };
+        List<AtomicReference<Throwable>> errors = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            coalescer.coalesce(ROUTE, "key", request).subscribe(response -> { }, error::set);
+            errors.add(error);
+        }
+
+        upstream.tryEmitError(new IllegalStateException("Сервер недоступен"));
+
+        errors.forEach(error -> assertInstanceOf(IllegalStateException.class, error.get()));
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1, count("upstream"));
+        assertEquals(CLIENTS - 1, count("collapsed"));
+
+        ResponseEntity<Object> response = coalescer.coalesce(ROUTE, "key", () -> {
+            upstreamCalls.incrementAndGet();
+            return Mono.just(ResponseEntity.ok().build());
+        }).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(2, count("upstream"));
+    }
+
+    private List<ResponseEntity<Object>> concurrently(int clients, Request request) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<Object>>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return request.send(index).block();
+            }));
+        }
+        start.countDown();
+        List<ResponseEntity<Object>> responses = new ArrayList<>();
+        for (Future<ResponseEntity<Object>> future : futures) {
+            responses.add(future.get(10, TimeUnit.SECONDS));
+        }
+        return responses;
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("shareit.gateway.coalescing", "route", ROUTE, "result", result).count();
+    }
+
+    private interface Request {
+        Mono<ResponseEntity<Object>> send(int index) throws Exception;
+    }
+}
@@ -0,0 +1,255 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.practicum.shareit.booking.client.BookingClient;
+import ru.practicum.shareit.booking.dto.BookingCreationDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.item.client.ItemClient;
+import ru.practicum.shareit.item.dto.CommentTextDto;
+import ru.practicum.shareit.item.dto.ItemCreationDto;
+import ru.practicum.shareit.ratelimit.Bulkheads;
+import ru.practicum.shareit.request.client.ItemRequestClient;
+import ru.practicum.shareit.request.dto.ItemRequestCreationDto;
+import ru.practicum.shareit.user.client.UserClient;
+import ru.practicum.shareit.user.dto.UserDto;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseCacheTest {
+
+    private static final long USER_ID = 1;
+
+    private final AtomicInteger version = new AtomicInteger();
+
+    private MockWebServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCache responseCache;
+    private ItemClient itemClient;
+    private BookingClient bookingClient;
+    private ItemRequestClient itemRequestClient;
+    private UserClient userClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        // Тело GET-ответа меняется при каждом запросе к серверу, ETag зависит только от пути и пользователя
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (!"GET".equals(request.getMethod())) {
+                    return new MockResponse().setResponseCode(200);
+                }
+                String etag = "\"" + request.getPath().hashCode() + "-" + request.getHeader("X-Sharer-User-Id")
+                        + "\"";
+                if (etag.equals(request.getHeader("If-None-Match"))) {
+                    return new MockResponse().setResponseCode(304).setHeader("ETag", etag);
+                }
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setHeader("ETag", etag)
+                        .setBody("[\"" + request.getPath() + " " + request.getHeader("X-Sharer-User-Id") + " "
+                                + version.incrementAndGet() + "\"]");
+            }
+        });
+        server.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment();
+        responseCache = new ResponseCache(meterRegistry, environment, true, 1000, Duration.ofMinutes(1),
+                Duration.ofMinutes(10));
+        RequestCoalescer coalescer = new RequestCoalescer(meterRegistry, true);
+        Bulkheads bulkheads = new Bulkheads(meterRegistry, environment, 100, 1);
+        ClientHttpConnector connector = new ReactorClientHttpConnector(HttpClient.newConnection());
+        String url = "http://localhost:" + server.getPort();
+        itemClient = new ItemClient(url, WebClient.builder(), connector, coalescer, responseCache, bulkheads);
+        bookingClient = new BookingClient(url, WebClient.builder(), connector, coalescer, responseCache, bulkheads);
+        itemRequestClient = new ItemRequestClient(url, WebClient.builder(), connector, coalescer, responseCache);
+        userClient = new UserClient(url, WebClient.builder(), connector, responseCache);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void get_whenRepeated_thenServedFromCache() {
+        List<String> first = cachedBodies();
+        int requests = server.getRequestCount();
+
+        assertEquals(first, cachedBodies());
+        assertEquals(requests, server.getRequestCount());
+    }
+
+    @Test
+    void evicting_whenItemChanged_thenItemsAndRequestsEvicted() {
+        List<String> before = cachedBodies();
+
+        itemClient.createItem(new ItemCreationDto(), USER_ID).block();
+
+        assertEvicted(before, cachedBodies(), true, true, false);
+    }
+
+    @Test
+    void evicting_whenCommentAdded_thenOnlyItemsEvicted() {
+        List<String> before = cachedBodies();
+
+        itemClient.addComment(new CommentTextDto("text"), 1, USER_ID).block();
+
+        assertEvicted(before, cachedBodies(), true, false, false);
+    }
+
+    @Test
+    void evicting_whenBookingChanged_thenBookingsAndItemsEvicted() {
+        List<String> before = cachedBodies();
+
+        bookingClient.createBooking(new BookingCreationDto(), USER_ID).block();
+        List<String> afterCreate = cachedBodies();
+        bookingClient.considerationOfRequest(1, USER_ID, true).block();
+
+        assertEvicted(before, afterCreate, true, false, true);
+        assertEvicted(afterCreate, cachedBodies(), true, false, true);
+    }
+
+    @Test
+    void evicting_whenRequestAdded_thenOnlyRequestsEvicted() {
+        List<String> before = cachedBodies();
+
+        itemRequestClient.addRequest(new ItemRequestCreationDto("description"), USER_ID).block();
+
+        assertEvicted(before, cachedBodies(), false, true, false);
+    }
+
+    @Test
+    void evicting_whenUserChanged_thenAllGroupsEvicted() {
+        List<String> before = cachedBodies();
+
+        userClient.updateUser(USER_ID, new UserDto()).block();
+        List<String> afterUpdate = cachedBodies();
+        userClient.delete(USER_ID).block();
+
+        assertEvicted(before, afterUpdate, true, true, true);
+        assertEvicted(afterUpdate, cachedBodies(), true, true, true);
+    }
+
+    @Test
+    void evicting_whenWriteFailed_thenNothingEvicted() {
+        server.setDispatcher(new Dispatcher() {
+            private final Dispatcher delegate = server.getDispatcher();
+
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                return "GET".equals(request.getMethod()) ? delegate.dispatch(request)
+                        : new MockResponse().setResponseCode(404);
+            }
+        });
+        List<String> before = cachedBodies();
+
+        itemClient.createItem(new ItemCreationDto(), USER_ID).block();
+
+        assertEquals(before, cachedBodies());
+    }
+
+    @Test
+    void get_whenEvictedWhileRequestInFlight_thenResponseNotStored() {
+        Sinks.One<ResponseEntity<Object>> upstream = Sinks.one();
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        ResponseEntity<Object> stale = ResponseEntity.ok("stale");
+
+        AtomicReference<ResponseEntity<Object>> received = new AtomicReference<>();
+        responseCache.get("items.get", "key", null, validator -> {
+            upstreamCalls.incrementAndGet();
+            return upstream.asMono();
+        }).subscribe(received::set);
+        responseCache.evict("items");
+        upstream.tryEmitValue(stale);
+
+        ResponseEntity<Object> fresh = responseCache.get("items.get", "key", null, validator -> {
+            upstreamCalls.incrementAndGet();
+            return Mono.just(ResponseEntity.ok("fresh"));
+        }).block();
+
+        assertEquals("stale", received.get().getBody());
+        assertEquals("fresh", fresh.getBody());
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void get_whenAnotherUser_thenSeparateEntry() {
+        String first = StubServerClient.body(itemClient.getItemById(1, 1, null).block());
+        String second = StubServerClient.body(itemClient.getItemById(1, 2, null).block());
+
+        assertNotEquals(first, second);
+        assertEquals(2, server.getRequestCount());
+        assertEquals(first, StubServerClient.body(itemClient.getItemById(1, 1, null).block()));
+        assertEquals(second, StubServerClient.body(itemClient.getItemById(1, 2, null).block()));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void get_whenClientEtagMatchesCachedResponse_thenNotModifiedWithoutServer() {
+        String etag = itemClient.getItemById(1, USER_ID, null).block().getHeaders().getETag();
+
+        ResponseEntity<Object> response = itemClient.getItemById(1, USER_ID, etag).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(etag, response.getHeaders().getETag());
+        assertNull(response.getBody());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void get_whenClientEtagMatchesAndNothingCached_thenServerNotModifiedPassedThrough() throws InterruptedException {
+        String etag = itemClient.getItemById(1, USER_ID, null).block().getHeaders().getETag();
+        responseCache.evict("items");
+
+        ResponseEntity<Object> response = itemClient.getItemById(1, USER_ID, etag).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(etag, response.getHeaders().getETag());
+        assertNull(response.getBody());
+        assertEquals(2, server.getRequestCount());
+        server.takeRequest();
+        assertEquals(etag, server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    // Ответы трёх кэшируемых маршрутов: items.get, requests.all и bookings.list
+    private List<String> cachedBodies() {
+        return List.of(
+                StubServerClient.body(itemClient.getItemById(1, USER_ID, null).block()),
+                StubServerClient.body(itemRequestClient.getRequestsList(USER_ID, 0, 10, null, null).block()),
+                StubServerClient.body(bookingClient.getAllBookingsByUser(USER_ID, BookingState.ALL, 0, 10, null,
+                        null).block()));
+    }
+
+    private static void assertEvicted(List<String> before, List<String> after, boolean items, boolean requests,
+                                      boolean bookings) {
+        assertEquals(items, !before.get(0).equals(after.get(0)), "items");
+        assertEquals(requests, !before.get(1).equals(after.get(1)), "requests");
+        assertEquals(bookings, !before.get(2).equals(after.get(2)), "bookings");
+    }
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.ByteArrayDecoder;
+import org.springframework.core.codec.ByteArrayEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Работа шлюза над телом ответа сервера со списком из items вещей: прежний разбор JSON в Object
+ * (Map и List) кодеком Jackson и повторная сериализация для клиента против передачи массива байт
+ * (ByteArrayDecoder и ByteArrayEncoder, как в BaseClient). Сеть и сервер не участвуют, измеряется
+ * только процессорное время шлюза на запрос; выделение памяти на запрос показывает профилировщик -prof gc.
+ * <p>
+ * Не запускается вместе с тестами. Запуск:
+ * <pre>
+ * mvn -pl gateway test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ * java -cp gateway/target/test-classes:gateway/target/classes:$(cat gateway/target/test.classpath) \
+ *     ru.practicum.shareit.client.ResponsePassthroughBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponsePassthroughBenchmark {
+
+    private static final ResolvableType OBJECT_TYPE = ResolvableType.forClass(Object.class);
+    private static final ResolvableType BYTES_TYPE = ResolvableType.forClass(byte[].class);
+
+    @Param({"20", "1000"})
+    private int items;
+
+    private final DataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+    private final ByteArrayDecoder byteArrayDecoder = new ByteArrayDecoder();
+    private final ByteArrayEncoder byteArrayEncoder = new ByteArrayEncoder();
+
+    private Jackson2JsonDecoder jsonDecoder;
+    private Jackson2JsonEncoder jsonEncoder;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        jsonDecoder = new Jackson2JsonDecoder(objectMapper);
+        jsonDecoder.setMaxInMemorySize(-1);
+        jsonEncoder = new Jackson2JsonEncoder(objectMapper);
+
+        List<Map<String, Object>> list = new ArrayList<>(items);
+        for (int i = 1; i <= items; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", i);
+            item.put("name", "Дрель " + i);
+            item.put("description", "Аккумуляторная дрель с двумя батареями и кейсом, вещь " + i);
+            item.put("available", true);
+            item.put("requestId", null);
+            item.put("lastBooking", Map.of("id", 2L * i, "bookerId", 7));
+            item.put("nextBooking", Map.of("id", 2L * i + 1, "bookerId", 8));
+            item.put("comments", List.of(Map.of("id", i, "text", "Отличная дрель", "authorName", "Пётр",
+                    "created", "2026-10-01T12:00:00")));
+            list.add(item);
+        }
+        body = objectMapper.writeValueAsBytes(list);
+    }
+
+    // Как BaseClient до перехода на byte[]: exchange с Object.class и сериализация ответа контроллером
+    @Benchmark
+    public DataBuffer decodeToObjectAndEncode() {
+        Object value = jsonDecoder.decode(bufferFactory.wrap(body), OBJECT_TYPE, MediaType.APPLICATION_JSON, null);
+        return jsonEncoder.encodeValue(value, bufferFactory, OBJECT_TYPE, MediaType.APPLICATION_JSON, null);
+    }
+
+    @Benchmark
+    public DataBuffer passBytes() {
+        byte[] value = byteArrayDecoder.decode(bufferFactory.wrap(body), BYTES_TYPE, MediaType.APPLICATION_JSON,
+                null);
+        return byteArrayEncoder.encodeValue(value, bufferFactory, BYTES_TYPE, MediaType.APPLICATION_JSON, null);
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(ResponsePassthroughBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.client;
+
+import okhttp3.mockwebserver.MockWebServer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Клиент шлюза к серверу-заглушке для тестов. Тесты лежат в пакете BaseClient и вызывают
+ * его защищённые методы напрямую.
+ */
+class StubServerClient extends BaseClient {
+
+    StubServerClient(MockWebServer server, @Nullable RequestCoalescer coalescer,
+                     @Nullable ResponseCache responseCache) {
+        // Без общего пула: соединение, закрытое заглушкой в одном тесте, не достанется следующему запросу
+        this(WebClient.builder().clientConnector(new ReactorClientHttpConnector(HttpClient.newConnection())),
+                server, coalescer, responseCache);
+    }
+
+    StubServerClient(WebClient.Builder builder, MockWebServer server, @Nullable RequestCoalescer coalescer,
+                     @Nullable ResponseCache responseCache) {
+        super(builder.baseUrl("http://localhost:" + server.getPort()).build(), coalescer, responseCache, null);
+    }
+
+    static String body(ResponseEntity<Object> response) {
+        return new String((byte[]) response.getBody());
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkheadTest {
+
+    private Counter rejected;
+    private Bulkhead bulkhead;
+
+    @BeforeEach
+    void setUp() {
+        rejected = new SimpleMeterRegistry().counter("rejected");
+        bulkhead = new Bulkhead("items", 2, 3, rejected);
+    }
+
+    @Test
+    void call_whenLimitReached_thenRejectedWithRetryAfter() {
+        bulkhead.call(() -> Sinks.<String>one().asMono()).subscribe();
+        bulkhead.call(() -> Sinks.<String>one().asMono()).subscribe();
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> bulkhead.call(() -> Mono.just("ok")).block());
+
+        assertEquals(3, e.getRetryAfterSeconds());
+        assertEquals(2, bulkhead.getActive());
+        assertEquals(1, rejected.count());
+    }
+
+    @Test
+    void call_whenCompleted_thenPermitReleased() {
+        Sinks.One<String> response = Sinks.one();
+        bulkhead.call(response::asMono).subscribe();
+
+        response.tryEmitValue("ok");
+
+        assertEquals(0, bulkhead.getActive());
+    }
+
+    @Test
+    void call_whenFailed_thenPermitReleased() {
+        Sinks.One<String> response = Sinks.one();
+        bulkhead.call(response::asMono).subscribe(value -> { }, error -> { });
+
+        response.tryEmitError(new IllegalStateException());
+
+        assertEquals(0, bulkhead.getActive());
+    }
+
+    @Test
+    void call_whenCancelled_thenPermitReleased() {
+        Disposable first = bulkhead.call(() -> Sinks.<String>one().asMono()).subscribe();
+        Disposable second = bulkhead.call(() -> Sinks.<String>one().asMono()).subscribe();
+
+        first.dispose();
+        second.dispose();
+
+        assertEquals(0, bulkhead.getActive());
+        assertEquals("ok", bulkhead.call(() -> Mono.just("ok")).block());
+    }
+
+    @Test
+    void call_whenSupplierThrows_thenPermitReleased() {
+        assertThrows(IllegalStateException.class, () -> bulkhead.call(() -> {
+            throw new IllegalStateException();
+        }).block());
+
+        assertEquals(0, bulkhead.getActive());
+    }
+
+    @Test
+    void call_whenNotSubscribed_thenNoPermitTaken() {
+        bulkhead.call(() -> Mono.just("ok"));
+
+        assertEquals(0, bulkhead.getActive());
+    }
+}
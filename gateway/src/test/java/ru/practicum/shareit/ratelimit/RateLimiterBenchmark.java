@@ -0,0 +1,98 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность ограничителей шлюза при одновременных вызовах: корзина токенов одного клиента,
+ * общая для всех потоков (худший случай для CAS), RateLimiter с общим и с отдельным для каждого потока
+ * пользователем и Bulkhead. Лимиты заданы так, что запросы не отклоняются и измеряется путь выдачи токена.
+ * <p>
+ * Не запускается вместе с тестами. Запуск, число потоков задаётся параметром -t:
+ * <pre>
+ * mvn -pl gateway test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ * java -cp gateway/target/test-classes:gateway/target/classes:$(cat gateway/target/test.classpath) \
+ *     ru.practicum.shareit.ratelimit.RateLimiterBenchmark -t 4
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final double UNLIMITED = 1e9;
+    private static final int BURST = Integer.MAX_VALUE / 2;
+
+    private final AtomicLong users = new AtomicLong();
+
+    private TokenBucket bucket;
+    private RateLimiter rateLimiter;
+    private Bulkhead bulkhead;
+
+    @Setup
+    public void setUp() {
+        bucket = new TokenBucket(UNLIMITED, BURST, System.nanoTime());
+        rateLimiter = new RateLimiter(new SimpleMeterRegistry(), true, UNLIMITED, BURST, UNLIMITED, BURST,
+                100_000, Duration.ofMinutes(10));
+        bulkhead = new Bulkhead("items", Integer.MAX_VALUE, 1, new SimpleMeterRegistry().counter("rejected"));
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadUser {
+        private String userId;
+
+        @Setup
+        public void setUp(RateLimiterBenchmark benchmark) {
+            userId = String.valueOf(benchmark.users.incrementAndGet());
+        }
+    }
+
+    @Benchmark
+    public long tokenBucketShared() {
+        return bucket.tryAcquire(System.nanoTime());
+    }
+
+    @Benchmark
+    public long rateLimiterSharedUser() {
+        return rateLimiter.acquire("/items", "1", "10.0.0.1");
+    }
+
+    @Benchmark
+    public long rateLimiterUserPerThread(ThreadUser user) {
+        return rateLimiter.acquire("/items", user.userId, "10.0.0.1");
+    }
+
+    @Benchmark
+    public Object bulkhead() {
+        return bulkhead.call(() -> Mono.just(Boolean.TRUE)).block();
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(RateLimiterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
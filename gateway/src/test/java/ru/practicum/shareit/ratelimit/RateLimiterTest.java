@@ -0,0 +1,96 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimiterTest {
+
+    private static final String ITEMS = "/items";
+    private static final String SEARCH = "/items/search";
+    private static final String SUGGEST = "/items/suggest";
+    private static final String ADDRESS = "10.0.0.1";
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Токен раз в 100 с обычным запросам и раз в 50 с поиску: за время теста корзины не пополняются
+        rateLimiter = new RateLimiter(meterRegistry, true, 0.01, 2, 0.02, 1, 1000, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void acquire_whenBurstSpent_thenRetryAfterUntilNextToken() {
+        assertEquals(0, rateLimiter.acquire(ITEMS, "1", ADDRESS));
+        assertEquals(0, rateLimiter.acquire(ITEMS, "1", ADDRESS));
+
+        assertEquals(100, rateLimiter.acquire(ITEMS, "1", ADDRESS));
+        assertEquals(1, rejected("default"));
+    }
+
+    @Test
+    void acquire_whenRetryAfterUnderSecond_thenOneSecond() {
+        RateLimiter fast = new RateLimiter(meterRegistry, true, 4, 1, 4, 1, 1000, Duration.ofMinutes(10));
+        fast.acquire(ITEMS, "1", ADDRESS);
+
+        assertEquals(1, fast.acquire(ITEMS, "1", ADDRESS));
+    }
+
+    @Test
+    void acquire_whenFractionalSeconds_thenRoundedUp() {
+        RateLimiter slow = new RateLimiter(meterRegistry, true, 0.4, 1, 0.4, 1, 1000, Duration.ofMinutes(10));
+        slow.acquire(ITEMS, "1", ADDRESS);
+
+        assertEquals(3, slow.acquire(ITEMS, "1", ADDRESS));
+    }
+
+    @Test
+    void acquire_whenDifferentUsers_thenSeparateBuckets() {
+        rateLimiter.acquire(ITEMS, "1", ADDRESS);
+        rateLimiter.acquire(ITEMS, "1", ADDRESS);
+
+        assertEquals(0, rateLimiter.acquire(ITEMS, "2", ADDRESS));
+        assertEquals(0, rateLimiter.acquire(ITEMS, null, ADDRESS));
+    }
+
+    @Test
+    void acquire_whenNoUser_thenBucketPerAddress() {
+        rateLimiter.acquire(ITEMS, null, ADDRESS);
+        rateLimiter.acquire(ITEMS, null, ADDRESS);
+
+        assertEquals(100, rateLimiter.acquire(ITEMS, null, ADDRESS));
+        assertEquals(0, rateLimiter.acquire(ITEMS, null, "10.0.0.2"));
+        assertEquals(0, rateLimiter.acquire(ITEMS, ADDRESS, ADDRESS));
+    }
+
+    @Test
+    void acquire_whenSearch_thenSeparateStricterBucket() {
+        assertEquals(0, rateLimiter.acquire(SEARCH, "1", ADDRESS));
+
+        assertEquals(50, rateLimiter.acquire(SUGGEST, "1", ADDRESS));
+        assertEquals(0, rateLimiter.acquire(ITEMS, "1", ADDRESS));
+        assertEquals(0, rateLimiter.acquire(SEARCH, "2", ADDRESS));
+        assertEquals(1, rejected("search"));
+        assertEquals(0, rejected("default"));
+    }
+
+    @Test
+    void acquire_whenActuatorOrDisabled_thenNotLimited() {
+        RateLimiter disabled = new RateLimiter(meterRegistry, false, 0.01, 1, 0.01, 1, 1000, Duration.ofMinutes(10));
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, rateLimiter.acquire("/actuator/health", null, ADDRESS));
+            assertEquals(0, disabled.acquire(ITEMS, "1", ADDRESS));
+        }
+    }
+
+    private double rejected(String limit) {
+        return meterRegistry.counter("shareit.gateway.rate-limit.rejected", "limit", limit).count();
+    }
+}
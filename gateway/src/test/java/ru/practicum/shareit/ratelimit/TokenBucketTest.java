@@ -0,0 +1,70 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void tryAcquire_whenNewBucket_thenWholeBurstAvailable() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(0));
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(0));
+    }
+
+    @Test
+    void tryAcquire_whenBurstSpent_thenOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(0);
+        }
+
+        assertEquals(INTERVAL / 2, bucket.tryAcquire(INTERVAL / 2));
+        assertEquals(0, bucket.tryAcquire(INTERVAL));
+        assertEquals(INTERVAL, bucket.tryAcquire(INTERVAL));
+        assertEquals(0, bucket.tryAcquire(3 * INTERVAL));
+        assertEquals(0, bucket.tryAcquire(3 * INTERVAL));
+        assertEquals(INTERVAL, bucket.tryAcquire(3 * INTERVAL));
+    }
+
+    @Test
+    void tryAcquire_whenRejected_thenStateUnchanged() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+        bucket.tryAcquire(0);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(INTERVAL, bucket.tryAcquire(0));
+        }
+        assertEquals(0, bucket.tryAcquire(INTERVAL));
+    }
+
+    @Test
+    void tryAcquire_whenIdleLongerThanRefill_thenBurstNotExceeded() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        long later = TimeUnit.MINUTES.toNanos(10);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(later));
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(later));
+    }
+
+    @Test
+    void tryAcquire_whenNanoTimeNegative_thenSameMath() {
+        long start = Long.MIN_VALUE + 1;
+        TokenBucket bucket = new TokenBucket(10, 2, start);
+
+        assertEquals(0, bucket.tryAcquire(start));
+        assertEquals(0, bucket.tryAcquire(start));
+        assertEquals(INTERVAL, bucket.tryAcquire(start));
+        assertEquals(0, bucket.tryAcquire(start + INTERVAL));
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Кроме JSON сервер принимает и отдаёт DTO в двоичном формате Smile (application/x-jackson-smile),
+ * если его запрашивает шлюз в заголовках Content-Type и Accept. Smile использует те же настройки
+ * Jackson, что и JSON, поэтому DTO и формат дат не меняются.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class SmileConverterConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    // Spring MVC сам добавляет конвертер Smile без настроек Spring Boot (даты записывались бы массивами),
+    // поэтому он заменяется конвертером с общими настройками
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(MappingJackson2SmileHttpMessageConverter.class::isInstance);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.factory(new SmileFactory()).build()));
+    }
+}
@@ -1,11 +1,13 @@
 package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.utils.PageCursor;
 
 import java.util.List;
 
@@ -38,18 +40,22 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getAllBookingsByUser(@RequestHeader(HEADER_NAME) long userId,
-                                                 @RequestParam BookingState state,
-                                                 @RequestParam int from,
-                                                 @RequestParam int size) {
-        return bookingService.getAllBookingsByUser(userId, state, from, size, false);
+    public ResponseEntity<List<BookingDto>> getAllBookingsByUser(@RequestHeader(HEADER_NAME) long userId,
+                                                                 @RequestParam BookingState state,
+                                                                 @RequestParam int from,
+                                                                 @RequestParam int size,
+                                                                 @RequestParam(required = false) String cursor) {
+        List<BookingDto> bookings = bookingService.getAllBookingsByUser(userId, state, from, size, cursor, false);
+        return PageCursor.toResponse(bookings, size, b -> PageCursor.encode(b.getStart(), b.getId()));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllBookingsByOwner(@RequestHeader(HEADER_NAME) long userId,
-                                                  @RequestParam BookingState state,
-                                                  @RequestParam int from,
-                                                  @RequestParam int size) {
-        return bookingService.getAllBookingsByUser(userId, state, from, size, true);
+    public ResponseEntity<List<BookingDto>> getAllBookingsByOwner(@RequestHeader(HEADER_NAME) long userId,
+                                                                  @RequestParam BookingState state,
+                                                                  @RequestParam int from,
+                                                                  @RequestParam int size,
+                                                                  @RequestParam(required = false) String cursor) {
+        List<BookingDto> bookings = bookingService.getAllBookingsByUser(userId, state, from, size, cursor, true);
+        return PageCursor.toResponse(bookings, size, b -> PageCursor.encode(b.getStart(), b.getId()));
     }
 }
@@ -1,26 +1,194 @@
 package ru.practicum.shareit.booking.dao;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Списочные запросы бронирований продолжают выборку после позиции (cursorStart, cursorId)
+ * в порядке (start, id) по убыванию. Для первой страницы передаётся PageCursor.descending(null).
+ * <p>
+ * Списки возвращают BookingView, заполняемый конструктором в запросе. Поиск по id подгружает вещь тем же запросом (граф Booking.item),
+ * так как её название попадает в ответ; от букера нужен только id.
+ * <p>
+ * В архив попадают только подтверждённые завершённые бронирования, поэтому запросы ожидающих,
+ * отклонённых, текущих и будущих бронирований, следующего бронирования и пересечений читают
+ * только оперативные строки (archived = false). Списки ALL и PAST и последнее бронирование видят архив.
+ */
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findByItemId(long itemId);
+    String BOOKING_VIEW = "select new ru.practicum.shareit.booking.dao.BookingView(b.id, b.start, b.end, b.status, " +
+            "b.booker.id, b.item.id, b.item.name) ";
 
-    List<Booking> findByBookerId(long bookerId, Pageable pageable);
+    @Override
+    @EntityGraph("Booking.item")
+    Optional<Booking> findById(Long bookingId);
 
+    @Query(BOOKING_VIEW +
+            "from Booking b " +
+            "where b.booker.id = :bookerId " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId))")
+    List<BookingView> findByBookerId(@Param("bookerId") long bookerId,
+                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                     @Param("cursorId") long cursorId, Pageable pageable);
+
+    @Query(BOOKING_VIEW +
+            "from Booking b " +
+            "where b.archived = false " +
+            "and b.booker.id = :bookerId " +
+            "and b.status = :status " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId))")
+    List<BookingView> findByBookerIdAndStatus(@Param("bookerId") long bookerId,
+                                              @Param("status") BookingStatus status,
+                                              @Param("cursorStart") LocalDateTime cursorStart,
+                                              @Param("cursorId") long cursorId, Pageable pageable);
+
+    @Query(BOOKING_VIEW +
+            "from Booking b " +
+            "where b.booker.id = :bookerId " +
+            "and b.end < :now " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId))")
+    List<BookingView> findPastByBookerId(@Param("bookerId") long bookerId, @Param("now") LocalDateTime now,
+                                         @Param("cursorStart") LocalDateTime cursorStart,
+                                         @Param("cursorId") long cursorId, Pageable pageable);
+
+    @Query(BOOKING_VIEW +
+            "from Booking b " +
+            "where b.archived = false " +
+            "and b.booker.id = :bookerId " +
+            "and b.start < :now " +
+            "and b.end > :now " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId))")
+    List<BookingView> findCurrentByBookerId(@Param("bookerId") long bookerId, @Param("now") LocalDateTime now,
+                                            @Param("cursorStart") LocalDateTime cursorStart,
+                                            @Param("cursorId") long cursorId, Pageable pageable);
+
+    @Query(BOOKING_VIEW +
+            "from Booking b " +
+            "where b.archived = false " +
+            "and b.booker.id = :bookerId " +
+            "and b.start > :now " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId))")
+    List<BookingView> findFutureByBookerId(@Param("bookerId") long bookerId, @Param("now") LocalDateTime now,
+                                           @Param("cursorStart") LocalDateTime cursorStart,
+                                           @Param("cursorId") long cursorId, Pageable pageable);
+
+    @Query(BOOKING_VIEW +
+            "from Booking b " +
+            "where b.item.owner.id = :ownerId " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId))")
+    List<BookingView> findByOwnerId(@Param("ownerId") long ownerId,
+                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                    @Param("cursorId") long cursorId, Pageable pageable);
+
+    @Query(BOOKING_VIEW +
+            "from Booking b " +
+            "where b.archived = false " +
+            "and b.item.owner.id = :ownerId " +
+            "and b.status = :status " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId))")
+    List<BookingView> findByOwnerIdAndStatus(@Param("ownerId") long ownerId,
+                                             @Param("status") BookingStatus status,
+                                             @Param("cursorStart") LocalDateTime cursorStart,
+                                             @Param("cursorId") long cursorId, Pageable pageable);
+
+    @Query(BOOKING_VIEW +
+            "from Booking b " +
+            "where b.item.owner.id = :ownerId " +
+            "and b.end < :now " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId))")
+    List<BookingView> findPastByOwnerId(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now,
+                                        @Param("cursorStart") LocalDateTime cursorStart,
+                                        @Param("cursorId") long cursorId, Pageable pageable);
+
+    @Query(BOOKING_VIEW +
+            "from Booking b " +
+            "where b.archived = false " +
+            "and b.item.owner.id = :ownerId " +
+            "and b.start < :now " +
+            "and b.end > :now " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId))")
+    List<BookingView> findCurrentByOwnerId(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now,
+                                           @Param("cursorStart") LocalDateTime cursorStart,
+                                           @Param("cursorId") long cursorId, Pageable pageable);
+
+    @Query(BOOKING_VIEW +
+            "from Booking b " +
+            "where b.archived = false " +
+            "and b.item.owner.id = :ownerId " +
+            "and b.start > :now " +
+            "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId))")
+    List<BookingView> findFutureByOwnerId(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now,
+                                          @Param("cursorStart") LocalDateTime cursorStart,
+                                          @Param("cursorId") long cursorId, Pageable pageable);
+
+    @Query("select b " +
+            "from Booking b " +
+            "where b.item.id in ?1 " +
+            "and b.start = (select max(lb.start) " +
+            "from Booking lb " +
+            "where lb.item.id = b.item.id " +
+            "and lb.start < ?2)")
+    List<Booking> findLastBookings(List<Long> itemIds, LocalDateTime now);
+
+    /**
+     * Ближайшие будущие неотклонённые бронирования вещей. Статус REJECTED записан в запросе литералом,
+     * а не параметром: условие совпадает с предикатом частичного индекса bookings_hot_item_id_not_rejected_idx,
+     * и PostgreSQL может выбрать этот индекс и в общем плане подготовленного запроса.
+     */
     @Query("select b " +
             "from Booking b " +
-            "where b.item.owner.id = ?1 " +
-            "order by b.start desc")
-    List<Booking> findByOwnerId(long ownerId, Pageable pageable);
+            "where b.item.id in ?1 " +
+            "and b.archived = false " +
+            "and b.status <> ru.practicum.shareit.booking.model.BookingStatus.REJECTED " +
+            "and b.start = (select min(nb.start) " +
+            "from Booking nb " +
+            "where nb.item.id = b.item.id " +
+            "and nb.archived = false " +
+            "and nb.start > ?2 " +
+            "and nb.status <> ru.practicum.shareit.booking.model.BookingStatus.REJECTED)")
+    List<Booking> findNextBookings(List<Long> itemIds, LocalDateTime now);
 
+    /**
+     * Есть ли у вещи неотклонённое бронирование, пересекающееся с периодом (start, end).
+     * REJECTED записан литералом по той же причине, что и в {@link #findNextBookings}.
+     */
+    @Query("select case when count(b) > 0 then true else false end " +
+            "from Booking b " +
+            "where b.item.id = ?1 " +
+            "and b.archived = false " +
+            "and b.status <> ru.practicum.shareit.booking.model.BookingStatus.REJECTED " +
+            "and b.start < ?2 " +
+            "and b.end > ?3")
+    boolean existsNotRejectedByItemIdAndStartBeforeAndEndAfter(long itemId, LocalDateTime end, LocalDateTime start);
+
+    @Query("select b " +
+            "from Booking b " +
+            "where b.item.id = ?1 " +
+            "and b.booker.id = ?2 " +
+            "and b.status = ?3 " +
+            "and b.end < ?4")
     List<Booking> findByItemIdAndBookerIdAndStatusAndEndBefore(long itemId, long bookerId,
-                                                         BookingStatus status, LocalDateTime end);
+                                                               BookingStatus status, LocalDateTime end);
+
+    @Query("select b.id " +
+            "from Booking b " +
+            "where b.archived = false " +
+            "and b.status = ?2 " +
+            "and b.end < ?1 " +
+            "and exists (select c.id from Comment c where c.item.id = b.item.id and c.author.id = b.booker.id)")
+    List<Long> findArchivableIds(LocalDateTime endedBefore, BookingStatus status, Pageable pageable);
+
+    @Modifying
+    @Query("update Booking b set b.archived = true where b.id in ?1")
+    int archive(List<Long> bookingIds);
 }
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка бронирований: только поля BookingDto. От вещи выбираются id и название, от букера — id,
+ * поэтому сущности Booking и Item не создаются и не попадают в контекст персистентности.
+ * <p>
+ * Заполняется конструктором в запросе (select new), а не интерфейсной проекцией Spring Data:
+ * та оборачивает каждую строку в прокси поверх Map и обходится дороже загрузки самих сущностей
+ * (см. BookingViewBenchmark).
+ */
+@Getter
+@AllArgsConstructor
+public class BookingView {
+
+    private final long id;
+
+    private final LocalDateTime start;
+
+    private final LocalDateTime end;
+
+    private final BookingStatus status;
+
+    private final long bookerId;
+
+    private final long itemId;
+
+    private final String itemName;
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.mapper;
 
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dao.BookingView;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingIdBookerIdDto;
@@ -28,6 +29,17 @@ public class BookingMapper {
         );
     }
 
+    public BookingDto toDto(BookingView booking) {
+        return new BookingDto(
+                booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getStatus(),
+                new UserIdDto(booking.getBookerId()),
+                new ItemIdNameDto(booking.getItemId(), booking.getItemName())
+        );
+    }
+
     public Booking toBooking(BookingCreationDto bookingDto, User user, Item item) {
         Booking booking = new Booking(
                 0,
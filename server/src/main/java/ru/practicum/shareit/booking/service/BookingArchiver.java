@@ -0,0 +1,63 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Переносит в архив подтверждённые бронирования, которые завершились раньше чем
+ * shareit.bookings.archive.after назад и по вещи которых букер оставил отзыв. Такие бронирования
+ * больше не меняются и нужны только истории (ALL, PAST) и последнему бронированию вещи.
+ * <p>
+ * Строки переносятся пачками по shareit.bookings.archive.batch-size, каждая пачка в своей транзакции,
+ * чтобы не держать блокировки на всей истории сразу. Расписание задаётся
+ * shareit.bookings.archive.cron, значение "-" отключает архивацию.
+ */
+@Component
+@Slf4j
+public class BookingArchiver {
+
+    private final BookingRepository bookingRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration archiveAfter;
+
+    private final int batchSize;
+
+    public BookingArchiver(BookingRepository bookingRepository, TransactionTemplate transactionTemplate,
+                           @Value("${shareit.bookings.archive.after:30d}") Duration archiveAfter,
+                           @Value("${shareit.bookings.archive.batch-size:1000}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.archiveAfter = archiveAfter;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${shareit.bookings.archive.cron:0 30 3 * * *}")
+    public int archiveCompletedBookings() {
+        LocalDateTime endedBefore = LocalDateTime.now().minus(archiveAfter);
+        int total = 0;
+        int archived;
+        do {
+            archived = transactionTemplate.execute(status -> {
+                List<Long> bookingIds = bookingRepository.findArchivableIds(endedBefore, BookingStatus.APPROVED,
+                        PageRequest.of(0, batchSize));
+                return bookingIds.isEmpty() ? 0 : bookingRepository.archive(bookingIds);
+            });
+            total += archived;
+        } while (archived == batchSize);
+
+        log.info("В архив перенесено {} бронирований, завершившихся до {}", total, endedBefore);
+        return total;
+    }
+}
@@ -14,5 +14,6 @@ public interface BookingService {
 
     BookingDto getBookingById(long userId, long bookingId);
 
-    List<BookingDto> getAllBookingsByUser(long userId, BookingState state, int from, int size, boolean isOwner);
+    List<BookingDto> getAllBookingsByUser(long userId, BookingState state, int from, int size, String cursor,
+                                          boolean isOwner);
 }
@@ -2,11 +2,12 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dao.BookingView;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -21,15 +22,16 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.PageCursor;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
 
     private final BookingRepository bookingRepository;
@@ -43,13 +45,16 @@ public class BookingServiceImpl implements BookingService {
     private final BookingMapper bookingMapper;
 
     @Override
+    @Transactional
     public BookingDto createBooking(long userId, BookingCreationDto bookingDto) {
         User user = userRepository.findById(userId).orElseThrow(() -> {
             String message = "Пользователь с id = " + userId + " не найден";
             log.error(message);
             throw new NotFoundException(message);
         });
-        Item item = itemRepository.findById(bookingDto.getItemId()).orElseThrow(() -> {
+        // Блокировка строки вещи до конца транзакции: параллельные бронирования одной вещи выполняются
+        // последовательно, поэтому проверка пересечений и сохранение не разделяются чужой вставкой
+        Item item = itemRepository.findByIdForUpdate(bookingDto.getItemId()).orElseThrow(() -> {
             String message = "Вещь itemId = " + bookingDto.getItemId() + " не найдена";
             log.error(message);
             throw new NotFoundException(message);
@@ -86,6 +91,7 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional
     public BookingDto considerationOfRequest(long userId, long bookingId, boolean approved) {
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> {
             String message = "Бронирование bookingId = " + bookingId + " не найдена";
@@ -139,84 +145,80 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getAllBookingsByUser(long userId, BookingState state, int from, int size, boolean isOwner) {
-        userService.getUserById(userId);
-        List<Booking> bookings;
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by("start").descending());
-
-        if (isOwner) {
-            bookings = bookingRepository.findByOwnerId(userId, pageable);
-        } else {
-            bookings = bookingRepository.findByBookerId(userId, pageable);
-        }
+    public List<BookingDto> getAllBookingsByUser(long userId, BookingState state, int from, int size, String cursor,
+                                                 boolean isOwner) {
+        userService.requireExists(userId);
+        Pageable pageable = PageCursor.pageable(from, size, cursor, Sort.by("start").descending()
+                .and(Sort.by("id").descending()));
+        PageCursor position = PageCursor.descending(cursor);
+        LocalDateTime start = position.getSortKey();
+        long id = position.getId();
+        LocalDateTime now = LocalDateTime.now();
 
         if (state == null) {
             state = BookingState.ALL;
         }
 
+        // Фильтрация по состоянию выполняется в запросе, поэтому страница содержит ровно size подходящих бронирований
+        List<BookingView> bookings;
         switch (state) {
             case WAITING:
             case REJECTED:
-                String strState = state.toString();
-                Predicate<Booking> statusPredicate = b -> b.getStatus().toString().equals(strState);
-                return getFilteredAndSortBookings(bookings, statusPredicate);
+                BookingStatus status = BookingStatus.valueOf(state.toString());
+                bookings = isOwner
+                        ? bookingRepository.findByOwnerIdAndStatus(userId, status, start, id, pageable)
+                        : bookingRepository.findByBookerIdAndStatus(userId, status, start, id, pageable);
+                break;
 
             case PAST:
-                Predicate<Booking> pastPredicate = b -> b.getEnd().isBefore(LocalDateTime.now());
-                return getFilteredAndSortBookings(bookings, pastPredicate);
+                bookings = isOwner
+                        ? bookingRepository.findPastByOwnerId(userId, now, start, id, pageable)
+                        : bookingRepository.findPastByBookerId(userId, now, start, id, pageable);
+                break;
 
             case CURRENT:
-                Predicate<Booking> currentPredicate = b -> b.getStart().isBefore(LocalDateTime.now())
-                        && b.getEnd().isAfter(LocalDateTime.now());
-                return getFilteredAndSortBookings(bookings, currentPredicate);
+                bookings = isOwner
+                        ? bookingRepository.findCurrentByOwnerId(userId, now, start, id, pageable)
+                        : bookingRepository.findCurrentByBookerId(userId, now, start, id, pageable);
+                break;
 
             case FUTURE:
-                Predicate<Booking> futurePredicate = b -> b.getStart().isAfter(LocalDateTime.now());
-                return getFilteredAndSortBookings(bookings, futurePredicate);
+                bookings = isOwner
+                        ? bookingRepository.findFutureByOwnerId(userId, now, start, id, pageable)
+                        : bookingRepository.findFutureByBookerId(userId, now, start, id, pageable);
+                break;
 
             case ALL:
-                return bookings.stream()
-                        .map(bookingMapper::toDto)
-                        .collect(Collectors.toList());
+                bookings = isOwner
+                        ? bookingRepository.findByOwnerId(userId, start, id, pageable)
+                        : bookingRepository.findByBookerId(userId, start, id, pageable);
+                break;
 
             default:
                 String message = "Unknown state: " + state;
                 log.error(message);
                 throw new ValidationException(message);
         }
+
+        return bookings.stream()
+                .map(bookingMapper::toDto)
+                .collect(Collectors.toList());
     }
 
     private void checkItemBookings(BookingCreationDto booking) {
         long itemId = booking.getItemId();
-        List<Booking> existingBookings = bookingRepository.findByItemId(itemId);
+
+        // Пересечение ищется на стороне БД, в PostgreSQL по частичному индексу bookings_hot_item_id_not_rejected_idx
+        // (оперативные неотклонённые бронирования): отклонённые бронирования вещь не занимают
+        boolean isOverlapping = bookingRepository.existsNotRejectedByItemIdAndStartBeforeAndEndAfter(itemId,
+                booking.getEnd(), booking.getStart());
 
         // Если бронирование имеется и даты пересекаются, то выбрасываем ошибку
-        if (existingBookings != null) {
-            LocalDateTime startNewBooking = booking.getStart();
-            LocalDateTime endNewBooking = booking.getEnd();
-
-            for (Booking existingBooking : existingBookings) {
-                LocalDateTime startExistBooking = existingBooking.getStart();
-                LocalDateTime endExistBooking = existingBooking.getEnd();
-
-                if (isOverlapping(startNewBooking, endNewBooking, startExistBooking, endExistBooking)) {
-                    String message = "Бронирование вещи itemId = " + itemId + " на выбранный период " +
-                            "пересекается с другим бронированием этой вещи";
-                    log.error(message);
-                    throw new ConflictException(message);
-                }
-            }
+        if (isOverlapping) {
+            String message = "Бронирование вещи itemId = " + itemId + " на выбранный период " +
+                    "пересекается с другим бронированием этой вещи";
+            log.error(message);
+            throw new ConflictException(message);
         }
     }
-
-    private boolean isOverlapping(LocalDateTime start1, LocalDateTime end1, LocalDateTime start2, LocalDateTime end2) {
-        return start1.isBefore(end2) && start2.isBefore(end1);
-    }
-
-    private List<BookingDto> getFilteredAndSortBookings(List<Booking> list, Predicate<Booking> predicate) {
-        return list.stream()
-                .filter(predicate)
-                .map(bookingMapper::toDto)
-                .collect(Collectors.toList());
-    }
 }
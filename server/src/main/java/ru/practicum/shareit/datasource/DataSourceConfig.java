@@ -0,0 +1,67 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Основная БД настраивается свойствами spring.datasource.*, реплики для транзакций только на чтение —
+ * списком shareit.datasource.replicas[N].* (url, username, password, hikari.*). Если реплики не заданы,
+ * чтение идёт в основную БД.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private static final String REPLICAS_PROPERTY = "shareit.datasource.replicas";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public Replicas replicas(Environment environment,
+                             @Value("${shareit.datasource.replica-health-check-interval:10s}")
+                             Duration healthCheckInterval) {
+        Binder binder = Binder.get(environment);
+        List<DataSourceProperties> replicaProperties = binder
+                .bind(REPLICAS_PROPERTY, Bindable.listOf(DataSourceProperties.class))
+                .orElse(List.of());
+
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            HikariDataSource dataSource = replicaProperties.get(i).initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .build();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setReadOnly(true);
+            binder.bind(REPLICAS_PROPERTY + "[" + i + "].hikari", Bindable.ofInstance(dataSource));
+            dataSources.put(dataSource.getPoolName(), dataSource);
+        }
+
+        Replicas replicas = new Replicas(dataSources);
+        replicas.startHealthChecks(healthCheckInterval);
+        return replicas;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, Replicas replicas) {
+        return new LazyConnectionDataSourceProxy(new ReadOnlyRoutingDataSource(primaryDataSource, replicas));
+    }
+}
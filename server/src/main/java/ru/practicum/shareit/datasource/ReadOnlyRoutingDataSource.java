@@ -0,0 +1,46 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Выбирает БД по типу текущей транзакции: транзакции с readOnly = true получают соединение одной
+ * из доступных реплик, остальные транзакции и запросы вне транзакций — соединение основной БД.
+ * Чтение также идёт в основную БД, если доступных реплик нет или пользователь недавно изменял данные
+ * (см. {@link ReadYourWritesFilter}).
+ * <p>
+ * Флаг readOnly выставляется уже после начала транзакции, поэтому источник нужно оборачивать
+ * в LazyConnectionDataSourceProxy: тогда соединение берётся при первом запросе, когда флаг уже известен.
+ */
+public class ReadOnlyRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+
+    private final Replicas replicas;
+
+    public ReadOnlyRoutingDataSource(DataSource primary, Replicas replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReadYourWritesFilter.isPrimaryRequired()) {
+            Connection connection = replicas.getConnection();
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Окно read-your-writes: после изменяющего запроса пользователя (по X-Sharer-User-Id) его запросы
+ * в течение shareit.datasource.read-your-writes-window читают основную БД, чтобы отставание реплик
+ * не скрыло от него собственные изменения. Нулевое окно отключает привязку.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final String HEADER_NAME = "X-Sharer-User-Id";
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    @Nullable
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(@Value("${shareit.datasource.read-your-writes-window:0s}") Duration window) {
+        this.recentWriters = window.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String userId = request.getHeader(HEADER_NAME);
+        if (recentWriters == null || userId == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // Окно открывается до выполнения записи: ответ может уйти клиенту раньше, чем фильтр завершится
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            recentWriters.put(userId, Boolean.TRUE);
+        } else if (recentWriters.getIfPresent(userId) == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+}
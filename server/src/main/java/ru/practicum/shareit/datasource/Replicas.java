@@ -0,0 +1,137 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.pool.HikariPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Реплики для транзакций только на чтение. Соединения выдаются по кругу и только от реплик, прошедших
+ * последнюю проверку. Реплика, не выдавшая соединение, исключается до следующей успешной проверки.
+ * До первой проверки реплики считаются недоступными, и чтение идёт в основную БД.
+ * <p>
+ * Проверки выполняются в отдельном потоке: недоступная реплика может отвечать до истечения
+ * connection-timeout пула и не должна задерживать другие задачи по расписанию.
+ */
+@Slf4j
+public class Replicas implements AutoCloseable {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final List<Replica> replicas;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Nullable
+    private ScheduledExecutorService healthChecks;
+
+    public Replicas(Map<String, DataSource> dataSources) {
+        this.replicas = dataSources.entrySet().stream()
+                .map(e -> new Replica(e.getKey(), e.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    public void startHealthChecks(Duration interval) {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        healthChecks = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecks.scheduleWithFixedDelay(this::checkHealth, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown("соединение не прошло проверку");
+                }
+            } catch (SQLException | HikariPool.PoolInitializationException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Соединение следующей доступной реплики или null, если доступных реплик нет.
+     */
+    @Nullable
+    public Connection getConnection() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException | HikariPool.PoolInitializationException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable) {
+                ((Closeable) replica.dataSource).close();
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void markUp() {
+            if (!healthy) {
+                log.info("Реплика {} доступна для чтения", name);
+                healthy = true;
+            }
+        }
+
+        private void markDown(String reason) {
+            if (healthy) {
+                log.warn("Реплика {} недоступна, чтение идёт через остальные реплики или основную БД: {}",
+                        name, reason);
+                healthy = false;
+            }
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentTextDto;
 import ru.practicum.shareit.item.dto.ItemCreationDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.ItemSearchSort;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.utils.PageCursor;
 
 import java.util.List;
 
@@ -20,10 +23,12 @@ public class ItemController {
     private static final String HEADER_NAME = "X-Sharer-User-Id";
 
     @GetMapping
-    public List<ItemDto> getAllItems(@RequestHeader(HEADER_NAME) long userId,
-                                     @RequestParam(defaultValue = "0") int from,
-                                     @RequestParam(defaultValue = "10") int size) {
-        return itemService.getOwnerItems(userId, from, size);
+    public ResponseEntity<List<ItemDto>> getAllItems(@RequestHeader(HEADER_NAME) long userId,
+                                                     @RequestParam(defaultValue = "0") int from,
+                                                     @RequestParam(defaultValue = "10") int size,
+                                                     @RequestParam(required = false) String cursor) {
+        List<ItemDto> items = itemService.getOwnerItems(userId, from, size, cursor);
+        return PageCursor.toResponse(items, size, i -> PageCursor.encode(i.getId()));
     }
 
     @GetMapping("/{itemId}")
@@ -46,10 +51,22 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemCreationDto> searchItem(@RequestParam String text,
-                                            @RequestParam(defaultValue = "0") int from,
-                                            @RequestParam(defaultValue = "10") int size) {
-        return itemService.searchItem(text, from, size);
+    public ResponseEntity<List<ItemCreationDto>> searchItem(@RequestParam String text,
+                                                            @RequestParam(defaultValue = "0") int from,
+                                                            @RequestParam(defaultValue = "10") int size,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "ID") ItemSearchSort sort) {
+        List<ItemCreationDto> items = itemService.searchItem(text, from, size, cursor, sort);
+        if (sort == ItemSearchSort.RELEVANCE) {
+            return ResponseEntity.ok(items);
+        }
+        return PageCursor.toResponse(items, size, i -> PageCursor.encode(i.getId()));
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggestItemNames(@RequestParam String prefix,
+                                         @RequestParam(defaultValue = "10") int size) {
+        return itemService.suggestItemNames(prefix, size);
     }
 
     @PostMapping("/{itemId}/comment")
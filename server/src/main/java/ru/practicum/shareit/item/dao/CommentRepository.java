@@ -1,15 +1,24 @@
 package ru.practicum.shareit.item.dao;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.item.model.Comment;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    @EntityGraph("Comment.author")
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("select c from Comment c where c.item.id = ?1")
     List<Comment> findByItemId(long itemId);
 
+    @EntityGraph("Comment.author")
     @Query("select c from Comment c where c.item.id in ?1")
     List<Comment> findByItemsId(List<Long> itemsId);
 }
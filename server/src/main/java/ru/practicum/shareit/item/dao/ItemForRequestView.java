@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Вещь для ленты запросов: поля ItemDtoForRequest без владельца и без сущности запроса.
+ * Заполняется конструктором в запросе, как и BookingView.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemForRequestView {
+
+    private final long id;
+
+    private final String name;
+
+    private final String description;
+
+    private final Boolean available;
+
+    private final long requestId;
+}
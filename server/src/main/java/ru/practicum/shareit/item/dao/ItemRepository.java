@@ -2,23 +2,88 @@ package ru.practicum.shareit.item.dao;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    /**
+     * Поиск подстроки в названии и описании. Текст передаётся экранированным через {@link #escapeLike(String)},
+     * чтобы % и _ искались как обычные символы, как и в индексе ItemSearchIndex.
+     */
     @Query("select i " +
             "from Item i " +
-            "where (lower(i.name) like lower(concat('%', ?1, '%')) " +
-            "or lower(i.description) like lower(concat('%', ?1, '%'))) " +
-            "and i.available is true")
-    List<Item> search(String text, Pageable pageable);
+            "where (lower(i.name) like lower(concat('%', ?1, '%')) escape '!' " +
+            "or lower(i.description) like lower(concat('%', ?1, '%')) escape '!') " +
+            "and i.available is true " +
+            "and i.id > ?2")
+    List<Item> search(String text, long afterId, Pageable pageable);
+
+    /**
+     * Поиск с сортировкой по релевантности: сначала точное совпадение названия, затем название,
+     * начинающееся с текста, затем название, содержащее текст, и в конце совпадения только в описании.
+     * Текст передаётся экранированным, как в {@link #search}.
+     */
+    @Query("select i " +
+            "from Item i " +
+            "where (lower(i.name) like lower(concat('%', ?1, '%')) escape '!' " +
+            "or lower(i.description) like lower(concat('%', ?1, '%')) escape '!') " +
+            "and i.available is true " +
+            "order by case " +
+            "when lower(i.name) like lower(?1) escape '!' then 0 " +
+            "when lower(i.name) like lower(concat(?1, '%')) escape '!' then 1 " +
+            "when lower(i.name) like lower(concat('%', ?1, '%')) escape '!' then 2 " +
+            "else 3 end, i.id")
+    List<Item> searchByRelevance(String text, Pageable pageable);
+
+    /**
+     * Различные без учёта регистра названия доступных вещей, начинающиеся с префикса, в порядке сортировки
+     * lower(name) по сопоставлению (collation) колонки; из вариантов написания возвращается наименьший.
+     * С ItemNameSuggester результат совпадает только при двоичном сопоставлении: тот сортирует по кодам символов.
+     * Префикс передаётся в нижнем регистре и экранированным через {@link #escapeLike(String)}.
+     */
+    @Query("select min(i.name) " +
+            "from Item i " +
+            "where lower(i.name) like concat(?1, '%') escape '!' " +
+            "and i.available is true " +
+            "group by lower(i.name) " +
+            "order by lower(i.name)")
+    List<String> suggestNames(String lowerPrefix, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(long itemId);
 
-    List<Item> findByOwnerId(long ownerId, Pageable pageable);
+    @Query("select i from Item i where i.owner.id = ?1 and i.id > ?2")
+    List<Item> findByOwnerIdAndIdGreaterThan(long ownerId, long afterId, Pageable pageable);
 
-    List<Item> findByRequestIdIn(List<Long> requestIds);
+    List<Item> findByAvailableTrueAndIdGreaterThan(long afterId, Pageable pageable);
 
+    @Query("select new ru.practicum.shareit.item.dao.ItemForRequestView(i.id, i.name, i.description, i.available, " +
+            "i.request.id) " +
+            "from Item i " +
+            "where i.request.id in ?1")
+    List<ItemForRequestView> findByRequestIdIn(List<Long> requestIds);
+
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    @Query("select i from Item i where i.request.id = ?1")
     List<Item> findByRequestId(long requestId);
+
+    /**
+     * Экранирует символы шаблона like (%, _ и сам символ экранирования '!') в тексте поиска.
+     */
+    static String escapeLike(String text) {
+        return text.replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+    }
 }
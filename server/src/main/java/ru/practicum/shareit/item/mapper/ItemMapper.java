@@ -37,6 +37,22 @@ public class ItemMapper {
         );
     }
 
+    /**
+     * Переносит в вещь поля, переданные в PATCH-запросе. Поля со значением null считаются не переданными
+     * и не меняются.
+     */
+    public void patch(Item item, ItemCreationDto itemDto) {
+        if (itemDto.getName() != null) {
+            item.setName(itemDto.getName());
+        }
+        if (itemDto.getDescription() != null) {
+            item.setDescription(itemDto.getDescription());
+        }
+        if (itemDto.getAvailable() != null) {
+            item.setAvailable(itemDto.getAvailable());
+        }
+    }
+
     public ItemDto toDto(Item item,
                          BookingIdBookerIdDto lastBooking,
                          BookingIdBookerIdDto nextBooking,
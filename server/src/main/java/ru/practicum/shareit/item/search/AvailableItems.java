@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Обход всех доступных вещей пачками по id для построения индексов в памяти.
+ */
+final class AvailableItems {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private AvailableItems() {
+    }
+
+    static void forEach(ItemRepository itemRepository, Consumer<Item> action) {
+        long afterId = 0;
+        List<Item> items;
+        do {
+            items = itemRepository.findByAvailableTrueAndIdGreaterThan(afterId,
+                    PageRequest.of(0, BATCH_SIZE, Sort.by("id")));
+            for (Item item : items) {
+                action.accept(item);
+                afterId = item.getId();
+            }
+        } while (items.size() == BATCH_SIZE);
+    }
+}
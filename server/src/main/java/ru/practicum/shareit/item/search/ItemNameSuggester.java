@@ -0,0 +1,144 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Подсказки названий доступных вещей по началу строки для автодополнения.
+ * Названия хранятся в отсортированном дереве с ключом "название в нижнем регистре + название + id",
+ * поэтому поиск по префиксу - это переход к диапазону ключей без просмотра остальных вещей.
+ * Из вариантов написания одного названия возвращается наименьший, как min(name) в ItemRepository.suggestNames.
+ * Порядок - по кодам символов; запрос к БД сортирует по сопоставлению (collation) колонки, поэтому
+ * их результаты совпадают при двоичном сопоставлении (H2, "C" в PostgreSQL), а при языковом могут расходиться.
+ * Строится при старте приложения и обновляется после фиксации транзакции создания или изменения вещи
+ * в ItemServiceImpl.
+ * Включается свойством shareit.search.suggest.enabled, пока он выключен или не построен, подсказки
+ * берутся из БД запросом ItemRepository.suggestNames.
+ * <p>
+ * Как и ItemSearchIndex, дерево обновляется только тем экземпляром сервера, через который изменена вещь,
+ * поэтому включать его можно только при одном экземпляре сервера.
+ */
+@Component
+@Slf4j
+public class ItemNameSuggester {
+
+    // Отделяет части ключа друг от друга и меньше любого символа названия
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final ItemRepository itemRepository;
+
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final NavigableMap<String, String> names = new TreeMap<>();
+
+    private final Map<Long, String> keys = new HashMap<>();
+
+    private volatile boolean ready;
+
+    public ItemNameSuggester(ItemRepository itemRepository, MeterRegistry meterRegistry,
+                             @Value("${shareit.search.suggest.enabled:false}") boolean enabled) {
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+        Gauge.builder("shareit.search.suggest.items", this, ItemNameSuggester::size)
+                .description("Количество вещей в индексе подсказок")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            names.clear();
+            keys.clear();
+            AvailableItems.forEach(itemRepository, this::add);
+            ready = true;
+            log.info("Индекс подсказок названий вещей построен, проиндексировано вещей: " + keys.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Добавляет вещь в индекс, заменяя её прежнее название. Недоступная вещь из индекса удаляется.
+     */
+    public void index(Item item) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            String key = keys.remove(item.getId());
+            if (key != null) {
+                names.remove(key);
+            }
+            if (Boolean.TRUE.equals(item.getAvailable())) {
+                add(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Не более size различных названий, начинающихся с prefix без учёта регистра, в алфавитном порядке.
+     */
+    public List<String> suggest(String prefix, int size) {
+        String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        List<String> suggestions = new ArrayList<>(size);
+        lock.readLock().lock();
+        try {
+            Map.Entry<String, String> entry = names.ceilingEntry(lowerPrefix);
+            while (entry != null && entry.getKey().startsWith(lowerPrefix) && suggestions.size() < size) {
+                String lowerName = entry.getValue().toLowerCase(Locale.ROOT);
+                suggestions.add(entry.getValue());
+                // Переход сразу к следующему названию, минуя вещи с таким же названием
+                entry = names.ceilingEntry(lowerName + (char) (KEY_SEPARATOR + 1));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+
+    private void add(Item item) {
+        String key = item.getName().toLowerCase(Locale.ROOT) + KEY_SEPARATOR + item.getName() + KEY_SEPARATOR
+                + item.getId();
+        names.put(key, item.getName());
+        keys.put(item.getId(), key);
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return keys.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
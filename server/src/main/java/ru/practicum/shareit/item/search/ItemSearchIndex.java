@@ -0,0 +1,335 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный триграммный индекс доступных вещей по названию и описанию в памяти сервера.
+ * Строится при старте приложения и обновляется после фиксации транзакции создания или изменения вещи
+ * в ItemServiceImpl.
+ * Кандидаты отбираются пересечением списков id по триграммам запроса. Текст вещей индекс не хранит:
+ * кандидаты загружаются из БД и проверяются на вхождение подстроки и доступность по самим сущностям,
+ * поэтому результат совпадает с поиском lower(...) like '%text%' в ItemRepository.search
+ * (% и _ в запросе и там, и здесь означают сами себя). Запросы короче триграммы индекс не обслуживает.
+ * Включается свойством shareit.search.index.enabled, до окончания построения поиск идёт через БД.
+ * <p>
+ * Перестроение собирает новый индекс без блокировки и подменяет им текущий, поиск при этом не ждёт.
+ * Изменения, пришедшие во время перестроения, применяются и к новому индексу перед подменой.
+ * <p>
+ * Индекс обновляется только тем экземпляром сервера, через который изменена вещь, поэтому включать его
+ * можно только при одном экземпляре сервера: иначе результаты поиска на разных экземплярах расходятся
+ * до их перезапуска.
+ */
+@Component
+@Slf4j
+public class ItemSearchIndex {
+
+    private static final int TRIGRAM_LENGTH = 3;
+
+    // Кандидаты загружаются из БД пачками не меньше этого размера
+    private static final int MIN_BATCH_SIZE = 50;
+
+    private final ItemRepository itemRepository;
+
+    private final boolean enabled;
+
+    private final Timer rebuildTimer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Object rebuildMonitor = new Object();
+
+    private Postings postings = new Postings();
+
+    // Изменения, пришедшие во время перестроения; null, если перестроение не идёт
+    private List<Change> pendingChanges;
+
+    private volatile boolean ready;
+
+    public ItemSearchIndex(ItemRepository itemRepository, MeterRegistry meterRegistry,
+                           @Value("${shareit.search.index.enabled:false}") boolean enabled) {
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+        this.rebuildTimer = Timer.builder("shareit.search.index.rebuild")
+                .description("Время построения индекса поиска вещей")
+                .register(meterRegistry);
+        Gauge.builder("shareit.search.index.items", this, ItemSearchIndex::size)
+                .description("Количество вещей в индексе поиска")
+                .register(meterRegistry);
+        Gauge.builder("shareit.search.index.memory", this, ItemSearchIndex::estimatedMemoryInBytes)
+                .description("Оценка памяти, занимаемой индексом поиска")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Может ли индекс выполнить поиск: он построен, и в запросе есть хотя бы одна триграмма.
+     */
+    public boolean canSearch(String text) {
+        return ready && text.toLowerCase(Locale.ROOT).length() >= TRIGRAM_LENGTH;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rebuildMonitor) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Postings rebuilt = new Postings();
+            try {
+                rebuildTimer.record(() -> AvailableItems.forEach(itemRepository,
+                        item -> rebuilt.add(item.getId(), item.getName(), item.getDescription())));
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pendingChanges = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                pendingChanges.forEach(change -> change.applyTo(rebuilt));
+                pendingChanges = null;
+                postings = rebuilt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Индекс поиска вещей построен, проиндексировано вещей: " + size());
+        }
+    }
+
+    /**
+     * Обновляет вещь в индексе: удаляет триграммы её прежних названия и описания и добавляет текущие,
+     * если вещь доступна. Для новой вещи прежние значения равны null.
+     */
+    public void index(Item item, @Nullable String previousName, @Nullable String previousDescription) {
+        if (!enabled) {
+            return;
+        }
+        Change change = new Change(item.getId(), previousName, previousDescription,
+                Boolean.TRUE.equals(item.getAvailable()) ? item.getName() : null, item.getDescription());
+        lock.writeLock().lock();
+        try {
+            change.applyTo(postings);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Доступные вещи, содержащие text в названии или описании, по возрастанию id.
+     * Первые offset найденных вещей после afterId пропускаются.
+     */
+    public List<Item> search(String text, long afterId, long offset, int size) {
+        String query = text.toLowerCase(Locale.ROOT);
+        int batchSize = Math.max(size, MIN_BATCH_SIZE);
+        List<Item> found = new ArrayList<>(size);
+        long skipped = 0;
+        long cursor = afterId;
+        while (found.size() < size) {
+            long[] candidates = candidates(query, cursor, batchSize);
+            if (candidates.length == 0) {
+                break;
+            }
+            Map<Long, Item> items = itemRepository.findAllById(Arrays.stream(candidates).boxed()
+                            .collect(Collectors.toList())).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            for (int i = 0; i < candidates.length && found.size() < size; i++) {
+                Item item = items.get(candidates[i]);
+                if (item == null || !matches(item, query)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    found.add(item);
+                }
+            }
+            if (candidates.length < batchSize) {
+                break;
+            }
+            cursor = candidates[candidates.length - 1];
+        }
+        return found;
+    }
+
+    // Не более limit id после afterId, которые есть в списках всех триграмм запроса
+    private long[] candidates(String query, long afterId, int limit) {
+        Set<Long> queryTrigrams = trigrams(query);
+        lock.readLock().lock();
+        try {
+            List<LongPostingList> lists = new ArrayList<>(queryTrigrams.size());
+            for (long trigram : queryTrigrams) {
+                LongPostingList list = postings.byTrigram.get(trigram);
+                if (list == null) {
+                    return new long[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(LongPostingList::size));
+
+            LongPostingList smallest = lists.get(0);
+            long[] candidates = new long[limit];
+            int count = 0;
+            for (int i = smallest.indexAfter(afterId); i < smallest.size() && count < limit; i++) {
+                long id = smallest.get(i);
+                if (containsInAll(lists, id)) {
+                    candidates[count++] = id;
+                }
+            }
+            return Arrays.copyOf(candidates, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean matches(Item item, String query) {
+        return Boolean.TRUE.equals(item.getAvailable())
+                && (item.getName().toLowerCase(Locale.ROOT).contains(query)
+                || item.getDescription().toLowerCase(Locale.ROOT).contains(query));
+    }
+
+    private static boolean containsInAll(List<LongPostingList> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Триграмма кодируется в long по 16 бит на символ
+    private static Set<Long> trigrams(String text) {
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + TRIGRAM_LENGTH <= text.length(); i++) {
+            trigrams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    private static Set<Long> trigrams(String name, String description) {
+        Set<Long> trigrams = trigrams(name.toLowerCase(Locale.ROOT));
+        trigrams.addAll(trigrams(description.toLowerCase(Locale.ROOT)));
+        return trigrams;
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return postings.ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long estimatedMemoryInBytes() {
+        lock.readLock().lock();
+        try {
+            long[] bytes = {postings.ids.capacityInBytes() + postings.byTrigram.capacityInBytes()};
+            postings.byTrigram.forEachValue(list -> bytes[0] += list.capacityInBytes());
+            return bytes[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Списки id вещей по триграммам и список id всех проиндексированных вещей.
+     */
+    private static class Postings {
+
+        private final LongObjectHashMap<LongPostingList> byTrigram = new LongObjectHashMap<>();
+
+        private final LongPostingList ids = new LongPostingList();
+
+        void add(long itemId, String name, String description) {
+            ids.add(itemId);
+            for (long trigram : trigrams(name, description)) {
+                byTrigram.computeIfAbsent(trigram, LongPostingList::new).add(itemId);
+            }
+        }
+
+        void remove(long itemId, String name, String description) {
+            for (long trigram : trigrams(name, description)) {
+                LongPostingList list = byTrigram.get(trigram);
+                if (list != null) {
+                    list.remove(itemId);
+                    if (list.isEmpty()) {
+                        byTrigram.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Изменение вещи: прежние название и описание (null для новой вещи) и текущие (null для недоступной).
+     */
+    private static class Change {
+
+        private final long itemId;
+
+        private final String previousName;
+
+        private final String previousDescription;
+
+        private final String name;
+
+        private final String description;
+
+        Change(long itemId, String previousName, String previousDescription, String name, String description) {
+            this.itemId = itemId;
+            this.previousName = previousName;
+            this.previousDescription = previousDescription;
+            this.name = name;
+            this.description = description;
+        }
+
+        void applyTo(Postings postings) {
+            if (previousName != null) {
+                postings.remove(itemId, previousName, previousDescription);
+            }
+            if (name != null) {
+                postings.add(itemId, name, description);
+            } else {
+                postings.ids.remove(itemId);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Хеш-таблица с ключами long без упаковки в Long: открытая адресация с линейным пробированием.
+ * Пустая ячейка - та, где значение равно null, поэтому null как значение не хранится.
+ * Не потокобезопасна, синхронизация - на стороне индекса.
+ */
+class LongObjectHashMap<V> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+
+    private Object[] values = new Object[INITIAL_CAPACITY];
+
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    V computeIfAbsent(long key, Supplier<V> supplier) {
+        int slot = slot(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+            slot = next(slot);
+        }
+        V value = supplier.get();
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > values.length * LOAD_FACTOR) {
+            resize(values.length << 1);
+        }
+        return value;
+    }
+
+    void remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return;
+        }
+        values[index] = null;
+        size--;
+        // Следующие записи той же цепочки сдвигаются в освободившуюся ячейку, чтобы поиск их не потерял
+        int gap = index;
+        for (int slot = next(index); values[slot] != null; slot = next(slot)) {
+            int home = slot(keys[slot]);
+            boolean reachable = gap <= slot ? home <= gap || home > slot : home <= gap && home > slot;
+            if (reachable) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                values[slot] = null;
+                gap = slot;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEachValue(Consumer<V> action) {
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Ссылки на значения считаются сжатыми, по 4 байта
+    long capacityInBytes() {
+        return (long) keys.length * Long.BYTES + (long) values.length * Integer.BYTES;
+    }
+
+    private int indexOf(long key) {
+        for (int slot = slot(key); values[slot] != null; slot = next(slot)) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (values.length - 1);
+    }
+
+    private int next(int slot) {
+        return (slot + 1) & (values.length - 1);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i]);
+                while (values[slot] != null) {
+                    slot = next(slot);
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -4,12 +4,13 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentTextDto;
 import ru.practicum.shareit.item.dto.ItemCreationDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.ItemSearchSort;
 
 import java.util.List;
 
 public interface ItemService {
 
-    List<ItemDto> getOwnerItems(long userId, int from, int size);
+    List<ItemDto> getOwnerItems(long userId, int from, int size, String cursor);
 
     ItemDto getItemById(long userId, long itemId);
 
@@ -17,7 +18,9 @@ public interface ItemService {
 
     ItemCreationDto updateItem(long userId, long itemId, ItemCreationDto item);
 
-    List<ItemCreationDto> searchItem(String text, int from, int size);
+    List<ItemCreationDto> searchItem(String text, int from, int size, String cursor, ItemSearchSort sort);
+
+    List<String> suggestItemNames(String prefix, int size);
 
     CommentDto addComment(long userId,  long itemId, CommentTextDto comment);
 }
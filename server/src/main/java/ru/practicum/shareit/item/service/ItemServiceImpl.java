@@ -4,7 +4,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.dao.BookingRepository;
 import ru.practicum.shareit.booking.dto.BookingIdBookerIdDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -23,23 +27,30 @@ import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchSort;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.dao.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
-import ru.practicum.shareit.utils.Mapper;
+import ru.practicum.shareit.utils.OffsetPageRequest;
+import ru.practicum.shareit.utils.PageCursor;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.function.BinaryOperator;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
 
     private final ItemRepository itemRepository;
@@ -60,26 +71,45 @@ public class ItemServiceImpl implements ItemService {
 
     private final ItemRequestRepository itemRequestRepository;
 
+    private final ItemSearchIndex itemSearchIndex;
+
+    private final ItemNameSuggester itemNameSuggester;
+
     @Override
-    public List<ItemDto> getOwnerItems(long userId, int from, int size) {
+    public List<ItemDto> getOwnerItems(long userId, int from, int size, String cursor) {
         log.info("Запрошен список вещей пользователя userId = " + userId);
 
-        List<Item> items = itemRepository.findByOwnerId(userId, PageRequest.of(from / size, size,
-                Sort.by("id")));
+        List<Item> items = itemRepository.findByOwnerIdAndIdGreaterThan(userId, PageCursor.afterId(cursor),
+                PageCursor.pageable(from, size, cursor, Sort.by("id")));
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        Map<Long, List<Comment>> comments = commentRepository.findByItemsId(items.stream()
+        // Комментарии, последние и следующие бронирования всех вещей страницы загружаются тремя запросами
+        List<Long> itemIds = items.stream()
                 .map(Item::getId)
-                .collect(Collectors.toList())).stream()
+                .collect(Collectors.toList());
+
+        Map<Long, List<Comment>> comments = commentRepository.findByItemsId(itemIds).stream()
                 .collect(Collectors.groupingBy(c -> c.getItem().getId(),
                         Collectors.mapping(c -> c, Collectors.toList())));
 
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingIdBookerIdDto> lastBookings = getBookingsByItemId(
+                bookingRepository.findLastBookings(itemIds, now));
+        Map<Long, BookingIdBookerIdDto> nextBookings = getBookingsByItemId(
+                bookingRepository.findNextBookings(itemIds, now));
+
         return items.stream()
-                .map(i -> getItemWithBookings(i, comments.getOrDefault(i.getId(), Collections.emptyList()).stream()
-                        .map(commentMapper::toDto)
-                        .collect(Collectors.toList())))
+                .map(i -> itemMapper.toDto(i, lastBookings.get(i.getId()), nextBookings.get(i.getId()),
+                        comments.getOrDefault(i.getId(), Collections.emptyList()).stream()
+                                .map(commentMapper::toDto)
+                                .collect(Collectors.toList())))
                 .collect(Collectors.toList());
     }
 
+    // Комментарии из кэша запросов собираются без графа Comment.author, поэтому авторы подгружаются
+    // в транзакции метода (обычно из кэша второго уровня)
     @Override
     public ItemDto getItemById(long userId, long itemId) {
         Item item = itemRepository.findById(itemId).orElseThrow(() -> {
@@ -95,31 +125,40 @@ public class ItemServiceImpl implements ItemService {
         log.info("Запрошена вещь с itemId = " + itemId);
 
         if (item.getOwner().getId() == userId) {
-            return getItemWithBookings(item, comments);
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> itemIds = List.of(itemId);
+            BookingIdBookerIdDto lastBooking = getBookingsByItemId(
+                    bookingRepository.findLastBookings(itemIds, now)).get(itemId);
+            BookingIdBookerIdDto nextBooking = getBookingsByItemId(
+                    bookingRepository.findNextBookings(itemIds, now)).get(itemId);
+            return itemMapper.toDto(item, lastBooking, nextBooking, comments);
         }
         return itemMapper.toDto(item, null, null, comments);
     }
 
     @Override
+    @Transactional
     public ItemCreationDto createItem(long userId, ItemCreationDto itemDto) {
         long requestId = itemDto.getRequestId();
         User user = userMapper.toUser(userService.getUserById(userId));
         Item item = itemMapper.toItem(itemDto, user);
         if (requestId != 0) {
-            setItemRequest(item, requestId);
+            item.setRequest(getItemRequest(requestId));
         }
         item = itemRepository.save(item);
+        indexAfterCommit(item, null, null);
         log.info("Добавлена новая вещь " + item);
         return itemMapper.toDto(item);
     }
 
     @Override
+    @Transactional
     public ItemCreationDto updateItem(long userId, long itemId, ItemCreationDto itemDto) {
         long requestId = itemDto.getRequestId();
-        User user = userMapper.toUser(userService.getUserById(userId));
-        Item item = itemMapper.toItem(itemDto, user);
+        userService.requireExists(userId);
         if (requestId != 0) {
-            setItemRequest(item, requestId);
+            // Запрос у существующей вещи не меняется, но переданный requestId должен существовать
+            getItemRequest(requestId);
         }
 
         Item updatingItem = itemRepository.findById(itemId).orElseThrow(() -> {
@@ -134,39 +173,59 @@ public class ItemServiceImpl implements ItemService {
             throw new ForbiddenException("Access Denied");
         }
 
-        // Конвертирую Item в Map и отбираю только те поля-ключи, значение у которых != null
-        Mapper mapper = new Mapper();
-        Map<String, Object> itemFields = mapper.toMap(item);
-        // Далее обновляю необходимые значения полей у существующего объекта
-        if (itemFields.containsKey("name")) {
-            updatingItem.setName(item.getName());
-        }
-        if (itemFields.containsKey("description")) {
-            updatingItem.setDescription(item.getDescription());
-        }
-        if (itemFields.containsKey("available")) {
-            updatingItem.setAvailable(item.getAvailable());
-        }
+        // Прежние название и описание нужны индексу поиска, чтобы убрать их триграммы
+        String previousName = updatingItem.getName();
+        String previousDescription = updatingItem.getDescription();
+        itemMapper.patch(updatingItem, itemDto);
 
         log.info("Обновлена информация о вещи " + updatingItem);
-        item = itemRepository.save(updatingItem);
+        Item item = itemRepository.save(updatingItem);
+        indexAfterCommit(item, previousName, previousDescription);
         return itemMapper.toDto(item);
     }
 
     @Override
-    public List<ItemCreationDto> searchItem(String text, int from, int size) {
+    public List<ItemCreationDto> searchItem(String text, int from, int size, String cursor, ItemSearchSort sort) {
         if (text.isBlank()) {
             log.info("Для поиска передана пустая строка");
             return Collections.emptyList();
         }
-        log.info("Поиск вещи по запросу: \"" + text + "\"");
-        List<Item> items = itemRepository.search(text, PageRequest.of(from / size, size));
+        log.info("Поиск вещи по запросу: \"" + text + "\", сортировка " + sort);
+        List<Item> items;
+        if (sort == ItemSearchSort.RELEVANCE) {
+            if (cursor != null) {
+                String message = "Курсор не поддерживается при сортировке по релевантности";
+                log.error(message);
+                throw new ValidationException(message);
+            }
+            items = itemRepository.searchByRelevance(ItemRepository.escapeLike(text),
+                    OffsetPageRequest.of(from, size));
+        } else if (itemSearchIndex.canSearch(text)) {
+            items = itemSearchIndex.search(text, PageCursor.afterId(cursor), cursor == null ? from : 0, size);
+        } else {
+            items = itemRepository.search(ItemRepository.escapeLike(text), PageCursor.afterId(cursor),
+                    PageCursor.pageable(from, size, cursor, Sort.by("id")));
+        }
         return items.stream()
                 .map(itemMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     @Override
+    public List<String> suggestItemNames(String prefix, int size) {
+        if (prefix.isBlank()) {
+            log.info("Для подсказки передана пустая строка");
+            return Collections.emptyList();
+        }
+        if (itemNameSuggester.isReady()) {
+            return itemNameSuggester.suggest(prefix, size);
+        }
+        return itemRepository.suggestNames(ItemRepository.escapeLike(prefix.toLowerCase(Locale.ROOT)),
+                PageRequest.of(0, size));
+    }
+
+    @Override
+    @Transactional
     public CommentDto addComment(long userId,  long itemId, CommentTextDto commentDto) {
         User author = userMapper.toUser(userService.getUserById(userId));
         Item item = itemRepository.findById(itemId).orElseThrow(() -> {
@@ -189,36 +248,47 @@ public class ItemServiceImpl implements ItemService {
         return commentMapper.toDto(newComment);
     }
 
-    private ItemDto getItemWithBookings(Item item, List<CommentDto> comments) {
-        List<Booking> bookings = bookingRepository.findByItemId(item.getId());
-
-        BookingIdBookerIdDto lastBooking = bookings
-                .stream()
-                .filter(b -> b.getEnd().isBefore(LocalDateTime.now())
-                        || b.getStart().isBefore(LocalDateTime.now()))
-                .sorted(Comparator.comparing(Booking::getStart).reversed())
-                .map(bookingMapper::toBookingIdBookerIdDto)
-                .findFirst()
-                .orElse(null);
-
-        BookingIdBookerIdDto nextBooking = bookings
-                .stream()
-                .filter(b -> b.getStart().isAfter(LocalDateTime.now())
-                        && b.getStatus() != BookingStatus.REJECTED)
-                .sorted(Comparator.comparing(Booking::getStart))
-                .map(bookingMapper::toBookingIdBookerIdDto)
-                .findFirst()
-                .orElse(null);
-
-        return itemMapper.toDto(item, lastBooking, nextBooking, comments);
+    // Запросы последних и следующих бронирований могут вернуть несколько бронирований одной вещи
+    // с одинаковым началом - берётся бронирование с наибольшим id
+    private Map<Long, BookingIdBookerIdDto> getBookingsByItemId(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(b -> b.getItem().getId(), b -> b,
+                        BinaryOperator.maxBy(Comparator.comparingLong(Booking::getId))))
+                .entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> bookingMapper.toBookingIdBookerIdDto(e.getValue())));
     }
 
-    private void setItemRequest(Item item, long requestId) {
-        ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() -> {
+    private ItemRequest getItemRequest(long requestId) {
+        return itemRequestRepository.findById(requestId).orElseThrow(() -> {
             String message = "Запрос requestId " + requestId + " не найден";
             log.error(message);
             throw new NotFoundException(message);
         });
-        item.setRequest(itemRequest);
+    }
+
+    /**
+     * Индексы поиска и подсказок в памяти обновляются только после фиксации транзакции: при откате
+     * в них не попадает несохранённое состояние вещи. Ошибка индексации не отменяет уже сохранённое изменение.
+     */
+    private void indexAfterCommit(Item item, @Nullable String previousName, @Nullable String previousDescription) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            index(item, previousName, previousDescription);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                index(item, previousName, previousDescription);
+            }
+        });
+    }
+
+    private void index(Item item, @Nullable String previousName, @Nullable String previousDescription) {
+        try {
+            itemSearchIndex.index(item, previousName, previousDescription);
+            itemNameSuggester.index(item);
+        } catch (RuntimeException e) {
+            log.error("Не удалось обновить индексы для вещи itemId = " + item.getId(), e);
+        }
     }
 }
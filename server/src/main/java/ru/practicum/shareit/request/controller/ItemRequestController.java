@@ -1,11 +1,13 @@
 package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestCreatedDto;
 import ru.practicum.shareit.request.dto.ItemRequestCreationDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
+import ru.practicum.shareit.utils.PageCursor;
 
 import java.util.List;
 
@@ -36,9 +38,11 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getRequestsList(@RequestHeader(HEADER_NAME) long requestorId,
-                                                @RequestParam int from,
-                                                @RequestParam int size) {
-        return itemRequestService.getRequestsList(requestorId, from, size);
+    public ResponseEntity<List<ItemRequestDto>> getRequestsList(@RequestHeader(HEADER_NAME) long requestorId,
+                                                                @RequestParam int from,
+                                                                @RequestParam int size,
+                                                                @RequestParam(required = false) String cursor) {
+        List<ItemRequestDto> itemRequests = itemRequestService.getRequestsList(requestorId, from, size, cursor);
+        return PageCursor.toResponse(itemRequests, size, r -> PageCursor.encode(r.getCreated(), r.getId()));
     }
 }
@@ -1,11 +1,25 @@
 package ru.practicum.shareit.request.dao;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
+    @Query("select r from ItemRequest r where r.requestor.id = ?1 order by r.created desc")
     List<ItemRequest> findByRequestorIdOrderByCreatedDesc(long userId);
+
+    @Query("select r " +
+            "from ItemRequest r " +
+            "where r.requestor.id <> :userId " +
+            "and r.created <= :cursorCreated " +
+            "and (r.created < :cursorCreated or (r.created = :cursorCreated and r.id < :cursorId))")
+    List<ItemRequest> findOthersRequests(@Param("userId") long userId,
+                                         @Param("cursorCreated") LocalDateTime cursorCreated,
+                                         @Param("cursorId") long cursorId, Pageable pageable);
 }
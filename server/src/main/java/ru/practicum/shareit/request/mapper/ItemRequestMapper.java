@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request.mapper;
 
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dao.ItemForRequestView;
 import ru.practicum.shareit.item.dto.ItemDtoForRequest;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestCreatedDto;
@@ -25,6 +26,16 @@ public class ItemRequestMapper {
         );
     }
 
+    public ItemDtoForRequest toItemDtoForReq(ItemForRequestView item) {
+        return new ItemDtoForRequest(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable(),
+                item.getRequestId()
+        );
+    }
+
     public ItemRequest toItemRequest(User requestor, ItemRequestCreationDto itemRequestDto) {
         return new ItemRequest(
                 0,
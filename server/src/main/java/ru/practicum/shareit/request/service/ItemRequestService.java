@@ -14,5 +14,5 @@ public interface ItemRequestService {
 
     ItemRequestDto getRequestById(long userId, long requestId);
 
-    List<ItemRequestDto> getRequestsList(long userId, int from, int size);
+    List<ItemRequestDto> getRequestsList(long userId, int from, int size, String cursor);
 }
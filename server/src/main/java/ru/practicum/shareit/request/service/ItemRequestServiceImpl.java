@@ -2,9 +2,9 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemDtoForRequest;
@@ -17,6 +17,7 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.PageCursor;
 
 import java.util.Collections;
 import java.util.List;
@@ -26,6 +27,7 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(readOnly = true)
 public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
@@ -39,6 +41,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final UserMapper userMapper;
 
     @Override
+    @Transactional
     public ItemRequestCreatedDto addRequest(long requestorId, ItemRequestCreationDto itemRequestDto) {
         User requestor = userMapper.toUser(userService.getUserById(requestorId));
         ItemRequest itemRequest = itemRequestMapper.toItemRequest(requestor, itemRequestDto);
@@ -50,7 +53,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public List<ItemRequestDto> getListOwnRequests(long requestorId) {
-        userService.getUserById(requestorId);
+        userService.requireExists(requestorId);
         List<ItemRequest> itemRequests = itemRequestRepository.findByRequestorIdOrderByCreatedDesc(requestorId);
 
         log.info("Запрошен список собственных запросов вещей пользователем requestorId = " + requestorId);
@@ -59,7 +62,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public ItemRequestDto getRequestById(long userId, long requestId) {
-        userService.getUserById(userId);
+        userService.requireExists(userId);
         ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() -> {
             String message = "Запрос requestId " + requestId + " не найден";
             log.error(message);
@@ -74,12 +77,12 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     @Override
-    public List<ItemRequestDto> getRequestsList(long requestorId, int from, int size) {
-        userService.getUserById(requestorId);
-        List<ItemRequest> itemRequests = itemRequestRepository.findAll(PageRequest.of(from / size, size,
-                Sort.by("created").descending())).stream()
-                .filter(i -> i.getRequestor().getId() != requestorId)
-                .collect(Collectors.toList());
+    public List<ItemRequestDto> getRequestsList(long requestorId, int from, int size, String cursor) {
+        userService.requireExists(requestorId);
+        PageCursor position = PageCursor.descending(cursor);
+        List<ItemRequest> itemRequests = itemRequestRepository.findOthersRequests(requestorId,
+                position.getSortKey(), position.getId(), PageCursor.pageable(from, size, cursor,
+                        Sort.by("created").descending().and(Sort.by("id").descending())));
 
         log.info("Запрошен список запросов вещей");
         return getItemRequestsWithItems(itemRequests);
@@ -22,4 +22,17 @@ public class UserMapper {
                 userDto.getEmail()
         );
     }
+
+    /**
+     * Переносит в пользователя поля, переданные в PATCH-запросе. Поля со значением null считаются
+     * не переданными и не меняются.
+     */
+    public void patch(User user, UserDto userDto) {
+        if (userDto.getName() != null) {
+            user.setName(userDto.getName());
+        }
+        if (userDto.getEmail() != null) {
+            user.setEmail(userDto.getEmail());
+        }
+    }
 }
@@ -10,6 +10,11 @@ public interface UserService {
 
     UserDto getUserById(long userId);
 
+    /**
+     * Проверка существования пользователя без загрузки его данных, если пользователь уже есть в кэше.
+     */
+    void requireExists(long userId);
+
     UserDto createUser(UserDto user);
 
     UserDto updateUser(long userId, UserDto user);
@@ -2,28 +2,45 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.utils.Mapper;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
+/**
+ * Пользователи по id хранятся в кэше users (Caffeine, настройки в spring.cache.caffeine.spec).
+ * Кэш локален для экземпляра сервера и сбрасывается только при изменениях через этот же экземпляр:
+ * изменение или удаление пользователя через другой экземпляр становится видно здесь лишь по истечении
+ * expireAfterWrite. Поэтому кэш рассчитан на один экземпляр сервера, при нескольких его нужно выключить
+ * (spring.cache.type=none) или сократить expireAfterWrite до допустимой задержки.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
 
+    public static final String USERS_CACHE = "users";
+
     private final UserRepository userRepository;
 
     private final UserMapper userMapper;
 
+    private final CacheManager cacheManager;
+
     @Override
     public List<UserDto> getAllUsers() {
         log.info("Запрошен список пользователей");
@@ -33,6 +50,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Cacheable(cacheNames = USERS_CACHE, key = "#userId")
     public UserDto getUserById(long userId) {
         User user = userRepository.findById(userId).orElseThrow(() -> {
             String message = "Пользователь с id = " + userId + " не найден";
@@ -44,6 +62,20 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    public void requireExists(long userId) {
+        Cache users = cacheManager.getCache(USERS_CACHE);
+        if (users != null && users.get(userId) != null) {
+            return;
+        }
+        if (!userRepository.existsById(userId)) {
+            String message = "Пользователь с id = " + userId + " не найден";
+            log.error(message);
+            throw new NotFoundException(message);
+        }
+    }
+
+    @Override
+    @Transactional
     public UserDto createUser(UserDto userDto) {
         User user = userMapper.toUser(userDto);
         user = userRepository.save(user);
@@ -51,36 +83,50 @@ public class UserServiceImpl implements UserService {
         return userMapper.toDto(user);
     }
 
+    /**
+     * Кэш обновляется после фиксации транзакции: нарушение уникальности email обнаруживается только при flush
+     * во время фиксации, уже после выхода из метода, и откаченный email не должен попасть в кэш.
+     */
     @Override
+    @Transactional
     public UserDto updateUser(long userId, UserDto userDto) {
         User updatingUser = userRepository.findById(userId).orElseThrow(() -> {
             String message = "Пользователь с id = " + userId + " не найден";
             log.error(message);
             throw new NotFoundException(message);
         });
-        User user = userMapper.toUser(userDto);
-
-        // Конвертирую Item в Map и отбираю только те поля-ключи, значение у которых != null
-        Mapper mapper = new Mapper();
-        Map<String, Object> userFields = mapper.toMap(user);
-
-        // Далее обновляю значения полей у существующего объекта
-        if (userFields.containsKey("name")) {
-            updatingUser.setName(user.getName());
-        }
-        if (userFields.containsKey("email")) {
-            updatingUser.setEmail(user.getEmail());
-        }
+        userMapper.patch(updatingUser, userDto);
 
         log.info("Обновлена информация о пользователе " + updatingUser);
         updatingUser = userRepository.save(updatingUser);
-        return userMapper.toDto(updatingUser);
+        UserDto updatedUser = userMapper.toDto(updatingUser);
+        cacheAfterCommit(userId, updatedUser);
+        return updatedUser;
     }
 
     @Override
+    @CacheEvict(cacheNames = USERS_CACHE, key = "#userId")
+    @Transactional
     public void deleteUser(long userId) {
         getUserById(userId);
         userRepository.deleteById(userId);
         log.info("Удален пользователь id = " + userId);
     }
+
+    private void cacheAfterCommit(long userId, UserDto user) {
+        Cache users = cacheManager.getCache(USERS_CACHE);
+        if (users == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            users.put(userId, user);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                users.put(userId, user);
+            }
+        });
+    }
 }
@@ -0,0 +1,112 @@
+package ru.practicum.shareit.utils;
+
+import lombok.Getter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Позиция последнего отданного элемента списка для постраничного вывода по ключу (keyset pagination).
+ * Клиент получает курсор в заголовке X-Next-Cursor и передаёт его без изменений в параметре cursor,
+ * а запрос продолжает выборку с условием (ключ сортировки, id) после этой позиции вместо OFFSET.
+ */
+@Getter
+public class PageCursor {
+
+    public static final String HEADER_NAME = "X-Next-Cursor";
+
+    // Позиция "до первого элемента" для списков, отсортированных по убыванию
+    private static final LocalDateTime MAX_SORT_KEY = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private static final String SEPARATOR = ";";
+
+    @Nullable
+    private final LocalDateTime sortKey;
+
+    private final long id;
+
+    private PageCursor(@Nullable LocalDateTime sortKey, long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    /**
+     * Позиция для списка, отсортированного по (ключ, id) по убыванию. Без курсора - начало списка.
+     */
+    public static PageCursor descending(@Nullable String cursor) {
+        if (cursor == null) {
+            return new PageCursor(MAX_SORT_KEY, Long.MAX_VALUE);
+        }
+        PageCursor pageCursor = decode(cursor);
+        if (pageCursor.getSortKey() == null) {
+            throw invalidCursor(cursor);
+        }
+        return pageCursor;
+    }
+
+    /**
+     * Позиция для списка, отсортированного по id по возрастанию. Без курсора - начало списка.
+     */
+    public static long afterId(@Nullable String cursor) {
+        return cursor == null ? 0 : decode(cursor).getId();
+    }
+
+    /**
+     * С курсором страница всегда начинается с его позиции, from учитывается только без курсора.
+     */
+    public static Pageable pageable(int from, int size, @Nullable String cursor, Sort sort) {
+        return OffsetPageRequest.of(cursor == null ? from : 0, size, sort);
+    }
+
+    public static String encode(LocalDateTime sortKey, long id) {
+        return encode(sortKey + SEPARATOR + id);
+    }
+
+    public static String encode(long id) {
+        return encode(SEPARATOR + id);
+    }
+
+    /**
+     * Ответ со страницей и курсором следующей страницы. Неполная страница - последняя, курсор не выдаётся.
+     */
+    public static <T> ResponseEntity<List<T>> toResponse(List<T> page, int size, Function<T, String> cursorOf) {
+        if (page.isEmpty() || page.size() < size) {
+            return ResponseEntity.ok(page);
+        }
+        return ResponseEntity.ok()
+                .header(HEADER_NAME, cursorOf.apply(page.get(page.size() - 1)))
+                .body(page);
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static PageCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = value.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw invalidCursor(cursor);
+            }
+            String sortKey = value.substring(0, separatorIndex);
+            long id = Long.parseLong(value.substring(separatorIndex + 1));
+            return new PageCursor(sortKey.isEmpty() ? null : LocalDateTime.parse(sortKey), id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw invalidCursor(cursor);
+        }
+    }
+
+    private static ValidationException invalidCursor(String cursor) {
+        return new ValidationException("Некорректный курсор страницы: " + cursor);
+    }
+}
@@ -0,0 +1,20 @@
+-- Объекты, специфичные для PostgreSQL. Выполняется после schema.sql при spring.sql.init.platform=postgresql
+-- (порядок задан в spring.sql.init.schema-locations)
+
+-- Триграммные индексы для поиска по подстроке (like '%text%') в названии и описании вещи
+create extension if not exists pg_trgm;
+create index if not exists items_name_trgm_idx on items using gin (lower(name) gin_trgm_ops);
+create index if not exists items_description_trgm_idx on items using gin (lower(description) gin_trgm_ops);
+
+-- Частичные индексы: H2 их не поддерживает, поэтому они создаются только в PostgreSQL.
+-- Оперативная часть бронирований (archived = false, см. BookingArchiver): запросы ожидающих, текущих
+-- и будущих бронирований и проверка пересечений обходят только её, архивные строки есть лишь в общих индексах.
+-- Проверка пересечения бронирований и поиск следующего бронирования не учитывают отклонённые
+create index if not exists bookings_hot_item_id_not_rejected_idx on bookings (item_id, start_date, end_date)
+    where status <> 'REJECTED' and not archived;
+create index if not exists bookings_hot_booker_id_start_date_idx on bookings (booker_id, start_date)
+    where not archived;
+create index if not exists bookings_hot_item_id_start_date_idx on bookings (item_id, start_date)
+    where not archived;
+-- Лента доступных вещей (is_available is true and id > курсор order by id)
+create index if not exists items_available_id_idx on items (id) where is_available;
@@ -13,6 +13,9 @@ create table if not exists requests (
     created timestamp
 );
 
+create index if not exists requests_requestor_id_created_idx on requests (requestor_id, created);
+create index if not exists requests_created_idx on requests (created);
+
 create table if not exists items (
     id bigint generated by default as identity not null primary key,
     name varchar(256) not null,
@@ -22,19 +25,36 @@ create table if not exists items (
     request_id bigint references requests(id)
 );
 
+-- Страницы вещей владельца идут по id (id > курсор order by id)
+create index if not exists items_owner_id_id_idx on items (owner_id, id);
+create index if not exists items_request_id_idx on items (request_id);
+
 create table if not exists bookings (
     id bigint generated by default as identity not null primary key,
     start_date timestamp,
     end_date timestamp,
     item_id bigint references items(id),
     booker_id bigint references users(id),
-    status varchar(32)
+    status varchar(32),
+    archived boolean not null default false
 );
 
+-- Для баз, созданных до появления архива
+alter table bookings add column if not exists archived boolean not null default false;
+
+create index if not exists bookings_item_id_end_date_idx on bookings (item_id, end_date);
+create index if not exists bookings_booker_id_start_date_idx on bookings (booker_id, start_date);
+create index if not exists bookings_booker_id_status_start_date_idx on bookings (booker_id, status, start_date);
+-- Последнее и следующее бронирование вещи, бронирования владельца через его вещи
+create index if not exists bookings_item_id_start_date_idx on bookings (item_id, start_date);
+
 create table if not exists comments (
     id bigint generated by default as identity not null primary key,
     text varchar(4096),
     item_id bigint references items(id),
     author_id bigint references users(id),
     created timestamp
-);
\ No newline at end of file
+);
+
+create index if not exists comments_item_id_idx on comments (item_id);
+create index if not exists comments_author_id_idx on comments (author_id);
\ No newline at end of file
@@ -0,0 +1,74 @@
+package ru.practicum.shareit;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Контекст сервера для JMH-бенчмарков: встроенная H2 профиля test, схема из тестового schema.sql,
+ * без веб-сервера и с журналом только предупреждений, чтобы вывод не влиял на замеры.
+ * Числа показывают соотношение вариантов на одной базе, а не время ответа PostgreSQL.
+ */
+public final class BenchmarkContext {
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Запускает контекст; properties в виде key=value переопределяют application.properties.
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>(List.of("logging.level.root=WARN",
+                "logging.level.org.springframework.orm.jpa=WARN",
+                "logging.level.org.springframework.transaction=WARN",
+                "logging.level.org.springframework.transaction.interceptor=WARN",
+                "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+                "shareit.bookings.archive.cron=-"));
+        args.addAll(List.of(properties));
+        return new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run(args.stream().map(arg -> "--" + arg).toArray(String[]::new));
+    }
+
+    public static long insertUser(JdbcTemplate jdbcTemplate, String name) {
+        jdbcTemplate.update("insert into users (name, email) values (?, ?)", name, name + "@bench.com");
+        return jdbcTemplate.queryForObject("select id from users where email = ?", Long.class, name + "@bench.com");
+    }
+
+    public static long insertItem(JdbcTemplate jdbcTemplate, long ownerId, String name) {
+        jdbcTemplate.update("insert into items (name, description, is_available, owner_id) values (?, ?, true, ?)",
+                name, "Описание: " + name, ownerId);
+        return jdbcTemplate.queryForObject("select max(id) from items", Long.class);
+    }
+
+    /**
+     * Бронирования вещи по одному дню подряд, начиная с first; статус каждого задаёт status.
+     */
+    public static void insertBookings(JdbcTemplate jdbcTemplate, long itemId, long bookerId, LocalDateTime first,
+                                      int count, StatusByIndex status) {
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = first.plusDays(i);
+            batch.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(12)), itemId, bookerId,
+                    status.of(i)});
+            if (batch.size() == INSERT_BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate("insert into bookings (start_date, end_date, item_id, booker_id, status) " +
+                        "values (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    public interface StatusByIndex {
+        String of(int index);
+    }
+}
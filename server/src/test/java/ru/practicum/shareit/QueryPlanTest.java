@@ -0,0 +1,226 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.request.dao.ItemRequestRepository;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Планы запросов репозиториев на заполненной базе: каждая таблица в запросе должна читаться по индексу.
+ * SQL перехватывается при вызове метода репозитория и передаётся в EXPLAIN, полный просмотр таблицы
+ * H2 помечает в плане как tableScan. Для внешних ключей H2 сама создаёт индексы, поэтому тест
+ * ловит прежде всего запросы, которые не могут ими воспользоваться, например условие на id
+ * присоединённой таблицы вместо колонки внешнего ключа.
+ * <p>
+ * Чтение по первичному ключу только с условием диапазона (id > ?) тоже считается полным просмотром:
+ * H2 выбирает его для постраничных запросов, когда отфильтрованные колонки не проиндексированы, и читает
+ * таблицу от курсора до конца.
+ * <p>
+ * Поиск по подстроке (like '%text%') в H2 не может использовать индекс, в PostgreSQL для него созданы
+ * триграммные индексы из schema-postgresql.sql, поэтому search и searchByRelevance здесь не проверяются.
+ * Планы PostgreSQL, в том числе выбор частичных индексов, этим тестом не проверяются.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.QueryPlanTest$SqlCapture")
+class QueryPlanTest {
+
+    private static final int USERS_COUNT = 50;
+    private static final int ITEMS_COUNT = 200;
+    private static final int BOOKINGS_PER_ITEM = 5;
+
+    private static final List<String> CAPTURED_SQL = new CopyOnWriteArrayList<>();
+
+    private static final Pattern PRIMARY_KEY_ACCESS = Pattern.compile("/\\* \\S+\\.PRIMARY_KEY_\\w*: ([^*]*) \\*/");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private final Pageable pageable = PageRequest.of(0, 10, Sort.by("start").descending()
+            .and(Sort.by("id").descending()));
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> requests = new ArrayList<>();
+        for (long id = 1; id <= USERS_COUNT; id++) {
+            users.add(new Object[]{id, "user" + id, "user" + id + "@email.com"});
+            requests.add(new Object[]{id, "request" + id, id, Timestamp.valueOf(now.minusDays(id))});
+        }
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        List<Object[]> bookings = new ArrayList<>();
+        for (long id = 1; id <= ITEMS_COUNT; id++) {
+            long owner = id % USERS_COUNT + 1;
+            items.add(new Object[]{id, "item" + id, "description" + id, id % 3 != 0, owner,
+                    id % 4 == 0 ? id % USERS_COUNT + 1 : null});
+            comments.add(new Object[]{id, "comment" + id, id, (id + 1) % USERS_COUNT + 1,
+                    Timestamp.valueOf(now)});
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                LocalDateTime start = now.plusDays(i * 2L - BOOKINGS_PER_ITEM);
+                bookings.add(new Object[]{id * BOOKINGS_PER_ITEM + i, Timestamp.valueOf(start),
+                        Timestamp.valueOf(start.plusDays(1)), id, (id + i) % USERS_COUNT + 1,
+                        BookingStatus.values()[i % BookingStatus.values().length].name()});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("insert into requests (id, description, requestor_id, created) values (?, ?, ?, ?)",
+                requests);
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, is_available, owner_id, request_id) " +
+                "values (?, ?, ?, ?, ?, ?)", items);
+        jdbcTemplate.batchUpdate("insert into comments (id, text, item_id, author_id, created) " +
+                "values (?, ?, ?, ?, ?)", comments);
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                "values (?, ?, ?, ?, ?, ?)", bookings);
+    }
+
+    @Test
+    void bookingRepository_thenAllQueriesUseIndexes() {
+        LocalDateTime cursorStart = now.plusYears(1);
+        long cursorId = Long.MAX_VALUE;
+
+        assertIndexed(() -> bookingRepository.findById(1L));
+        assertIndexed(() -> bookingRepository.findByBookerId(1, cursorStart, cursorId, pageable));
+        assertIndexed(() -> bookingRepository.findByBookerIdAndStatus(1, BookingStatus.WAITING, cursorStart,
+                cursorId, pageable));
+        assertIndexed(() -> bookingRepository.findPastByBookerId(1, now, cursorStart, cursorId, pageable));
+        assertIndexed(() -> bookingRepository.findCurrentByBookerId(1, now, cursorStart, cursorId, pageable));
+        assertIndexed(() -> bookingRepository.findFutureByBookerId(1, now, cursorStart, cursorId, pageable));
+        assertIndexed(() -> bookingRepository.findByOwnerId(1, cursorStart, cursorId, pageable));
+        assertIndexed(() -> bookingRepository.findByOwnerIdAndStatus(1, BookingStatus.WAITING, cursorStart,
+                cursorId, pageable));
+        assertIndexed(() -> bookingRepository.findPastByOwnerId(1, now, cursorStart, cursorId, pageable));
+        assertIndexed(() -> bookingRepository.findCurrentByOwnerId(1, now, cursorStart, cursorId, pageable));
+        assertIndexed(() -> bookingRepository.findFutureByOwnerId(1, now, cursorStart, cursorId, pageable));
+        assertIndexed(() -> bookingRepository.findLastBookings(List.of(1L, 2L, 3L), now));
+        assertIndexed(() -> bookingRepository.findNextBookings(List.of(1L, 2L, 3L), now));
+        assertIndexed(() -> bookingRepository.existsNotRejectedByItemIdAndStartBeforeAndEndAfter(1, now.plusDays(1),
+                now));
+        assertIndexed(() -> bookingRepository.findByItemIdAndBookerIdAndStatusAndEndBefore(1, 2,
+                BookingStatus.APPROVED, now));
+    }
+
+    @Test
+    void itemRepository_thenAllQueriesUseIndexes() {
+        assertIndexed(() -> itemRepository.findByIdForUpdate(1));
+        assertIndexed(() -> itemRepository.findByOwnerIdAndIdGreaterThan(1, 0, PageRequest.of(0, 10,
+                Sort.by("id"))));
+        assertIndexed(() -> itemRepository.findByRequestIdIn(List.of(1L, 2L, 3L)));
+        assertIndexed(() -> itemRepository.findByRequestId(1));
+    }
+
+    @Test
+    void itemRepository_whenAllAvailableItemsRead_thenReadInKeyOrderWithoutSort() {
+        // AvailableItems обходит все доступные вещи пачками, полный обход здесь ожидаем, важно лишь,
+        // что каждая пачка читается по ключу без сортировки всей таблицы
+        List<String> plans = explainAll(() -> itemRepository.findByAvailableTrueAndIdGreaterThan(100,
+                PageRequest.of(0, 10, Sort.by("id"))));
+
+        for (String plan : plans) {
+            if (plan.contains(".tableScan") || !plan.contains("index sorted")) {
+                fail("Пачка доступных вещей читается не в порядке ключа:\n" + plan);
+            }
+        }
+    }
+
+    @Test
+    void commentRepository_thenAllQueriesUseIndexes() {
+        assertIndexed(() -> commentRepository.findByItemId(1));
+        assertIndexed(() -> commentRepository.findByItemsId(List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void itemRequestRepository_thenAllQueriesUseIndexes() {
+        assertIndexed(() -> itemRequestRepository.findByRequestorIdOrderByCreatedDesc(1));
+        assertIndexed(() -> itemRequestRepository.findOthersRequests(1, now.plusYears(1), Long.MAX_VALUE,
+                PageRequest.of(0, 10, Sort.by("created").descending().and(Sort.by("id").descending()))));
+    }
+
+    private void assertIndexed(Runnable query) {
+        for (String plan : explainAll(query)) {
+            if (plan.contains(".tableScan")) {
+                fail("Запрос читает таблицу целиком:\n" + plan);
+            }
+            Matcher primaryKeyAccess = PRIMARY_KEY_ACCESS.matcher(plan);
+            while (primaryKeyAccess.find()) {
+                // Без условия равенства по ключу остаётся только диапазон, то есть просмотр таблицы от курсора
+                if (!primaryKeyAccess.group(1).replace(">=", "").replace("<=", "").contains("=")) {
+                    fail("Запрос читает таблицу по диапазону первичного ключа:\n" + plan);
+                }
+            }
+        }
+    }
+
+    private List<String> explainAll(Runnable query) {
+        entityManager.clear();
+        CAPTURED_SQL.clear();
+        query.run();
+        List<String> statements = new ArrayList<>(CAPTURED_SQL);
+        assertFalse(statements.isEmpty(), "Запрос не выполнил ни одного SQL-запроса");
+        return statements.stream().map(this::explain).collect(Collectors.toList());
+    }
+
+    // План H2 строится при подготовке запроса и не зависит от значений параметров
+    private String explain(String sql) {
+        return jdbcTemplate.query("explain " + sql,
+                statement -> {
+                    int parameters = statement.getParameterMetaData().getParameterCount();
+                    for (int i = 1; i <= parameters; i++) {
+                        statement.setObject(i, null);
+                    }
+                },
+                (rs, rowNum) -> rs.getString(1)).stream().collect(Collectors.joining("\n"));
+    }
+
+    public static class SqlCapture implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            CAPTURED_SQL.add(sql);
+            return sql;
+        }
+    }
+}
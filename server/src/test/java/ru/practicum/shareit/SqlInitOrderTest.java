@@ -0,0 +1,28 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Скрипт платформы (schema-postgresql.sql в рабочей конфигурации) создаёт индексы на таблицах из schema.sql,
+ * а Spring Boot по умолчанию выполняет его первым. Порядок задаёт spring.sql.init.schema-locations;
+ * тест поднимает чистую встроенную базу с тестовой платформой, скрипт которой без таблиц не выполнится.
+ */
+@JdbcTest(properties = "spring.sql.init.platform=initorder")
+class SqlInitOrderTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sqlInit_whenPlatformScriptPresent_thenRunsAfterSchema() {
+        Integer indexes = jdbcTemplate.queryForObject("select count(*) from information_schema.indexes " +
+                "where index_name = 'ITEMS_INIT_ORDER_IDX'", Integer.class);
+
+        assertEquals(1, indexes);
+    }
+}
@@ -0,0 +1,160 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dao.ItemRequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Число SQL-запросов на эндпоинт не должно зависеть от количества строк в ответе. Данные содержат
+ * несколько вещей с разными запросами, авторами комментариев и бронированиями, поэтому загрузка связей
+ * по одной строке сразу увеличит счётчик.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Sql(scripts = "/schema.sql")
+class StatementCountTest {
+
+    private static final String HEADER_NAME = "X-Sharer-User-Id";
+
+    private static final int ITEMS_COUNT = 3;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private User booker;
+    private User requestor;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(0, "owner", "owner@email.com"));
+        booker = userRepository.save(new User(0, "booker", "booker@email.com"));
+        requestor = userRepository.save(new User(0, "requestor", "requestor@email.com"));
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < ITEMS_COUNT; i++) {
+            User author = userRepository.save(new User(0, "author" + i, "author" + i + "@email.com"));
+            ItemRequest request = itemRequestRepository.save(new ItemRequest(0, "request" + i, requestor,
+                    now.minusDays(i)));
+            item = itemRepository.save(new Item(0, "item" + i, "description" + i, true, owner, request));
+            bookingRepository.save(new Booking(0, now.minusDays(2), now.minusDays(1), item, booker,
+                    BookingStatus.APPROVED));
+            booking = bookingRepository.save(new Booking(0, now.plusDays(1 + i), now.plusDays(2 + i), item, booker,
+                    BookingStatus.WAITING));
+            commentRepository.save(new Comment(0, "comment" + i, item, author, now));
+        }
+    }
+
+    @Test
+    void getBookingsByBooker_thenItemsSelectedInSameQuery() throws Exception {
+        // Проверка пользователя и страница бронирований вместе с вещами
+        assertEquals(2, countStatements(get("/bookings?state=ALL&from=0&size=10").header(HEADER_NAME,
+                booker.getId()), ITEMS_COUNT * 2));
+    }
+
+    @Test
+    void getBookingsByBooker_thenNoEntitiesLoaded() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        countStatements(get("/bookings?state=ALL&from=0&size=10").header(HEADER_NAME, booker.getId()),
+                ITEMS_COUNT * 2);
+
+        // Список строится из проекции, сущности бронирований и вещей не создаются
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void getBookingsByOwner_thenItemsSelectedInSameQuery() throws Exception {
+        assertEquals(2, countStatements(get("/bookings/owner?state=ALL&from=0&size=10").header(HEADER_NAME,
+                owner.getId()), ITEMS_COUNT * 2));
+    }
+
+    @Test
+    void getBookingById_thenItemFetchedInSameQuery() throws Exception {
+        assertEquals(1, countStatements(get("/bookings/" + booking.getId()).header(HEADER_NAME,
+                booker.getId()), -1));
+    }
+
+    @Test
+    void getOwnerItems_thenCommentsAndBookingsLoadedForWholePage() throws Exception {
+        // Вещи, комментарии с авторами, последние и следующие бронирования
+        assertEquals(4, countStatements(get("/items").header(HEADER_NAME, owner.getId()), ITEMS_COUNT));
+    }
+
+    @Test
+    void getItemById_whenOwner_thenBookingsLoadedWithoutItemChain() throws Exception {
+        assertEquals(4, countStatements(get("/items/" + item.getId()).header(HEADER_NAME, owner.getId()), -1));
+    }
+
+    @Test
+    void getOwnRequests_thenItemsLoadedForAllRequests() throws Exception {
+        // Проверка пользователя, запросы и вещи по всем запросам
+        assertEquals(3, countStatements(get("/requests").header(HEADER_NAME, requestor.getId()), ITEMS_COUNT));
+    }
+
+    @Test
+    void getOthersRequests_thenItemsLoadedForAllRequests() throws Exception {
+        assertEquals(3, countStatements(get("/requests/all?from=0&size=10").header(HEADER_NAME, booker.getId()),
+                ITEMS_COUNT));
+    }
+
+    // expectedSize < 0 означает, что ответ не является списком
+    private long countStatements(RequestBuilder request, int expectedSize) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        if (expectedSize < 0) {
+            mvc.perform(request).andExpect(status().isOk());
+        } else {
+            mvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(expectedSize));
+        }
+        return statistics.getPrepareStatementCount();
+    }
+}
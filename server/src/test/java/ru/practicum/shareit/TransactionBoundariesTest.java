@@ -0,0 +1,162 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingCreationDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemCreationDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@Sql(scripts = "/schema.sql")
+class TransactionBoundariesTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private ItemSearchIndex itemSearchIndex;
+
+    @SpyBean
+    private ItemMapper itemMapper;
+
+    @SpyBean
+    private BookingMapper bookingMapper;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = userRepository.save(new User(0, "owner", "owner@email.com"));
+        booker = userRepository.save(new User(0, "booker", "booker@email.com"));
+        item = itemRepository.save(new Item(0, "item", "description", true, owner, null));
+        bookingRepository.save(new Booking(0, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
+                item, booker, BookingStatus.APPROVED));
+    }
+
+    @Test
+    void getOwnerItems_thenOneTransactionWithoutFlush() {
+        statistics.clear();
+
+        itemService.getOwnerItems(owner.getId(), 0, 10, null);
+
+        // Вещи, комментарии и бронирования читаются в одной транзакции только на чтение
+        assertEquals(1, statistics.getTransactionCount());
+        assertEquals(0, statistics.getFlushCount());
+    }
+
+    @Test
+    void getAllBookingsByUser_thenOneTransactionWithoutFlush() {
+        statistics.clear();
+
+        bookingService.getAllBookingsByUser(booker.getId(), BookingState.ALL, 0, 10, null, false);
+
+        assertEquals(1, statistics.getTransactionCount());
+        assertEquals(0, statistics.getFlushCount());
+    }
+
+    @Test
+    void createItem_thenIndexedAfterCommit() {
+        AtomicBoolean committedWhenIndexed = new AtomicBoolean();
+        doAnswer(invocation -> {
+            // Другая транзакция видит только зафиксированные строки
+            long itemId = invocation.<Item>getArgument(0).getId();
+            committedWhenIndexed.set(CompletableFuture.supplyAsync(() -> itemRepository.existsById(itemId)).get());
+            return null;
+        }).when(itemSearchIndex).index(any(), any(), any());
+
+        itemService.createItem(owner.getId(), new ItemCreationDto(0, "new item", "new description", true));
+
+        assertTrue(committedWhenIndexed.get());
+    }
+
+    @Test
+    void createItem_whenFailsAfterSave_thenItemNotSavedAndNotIndexed() {
+        doThrow(new IllegalStateException("mapping failure")).when(itemMapper).toDto(any(Item.class));
+        ItemCreationDto itemDto = new ItemCreationDto(0, "new item", "new description", true);
+
+        assertThrows(IllegalStateException.class, () -> itemService.createItem(owner.getId(), itemDto));
+
+        assertEquals(1, itemRepository.count());
+        verify(itemSearchIndex, never()).index(any(), any(), any());
+    }
+
+    @Test
+    void createItem_whenIndexingFails_thenItemSaved() {
+        doThrow(new IllegalStateException("index failure")).when(itemSearchIndex).index(any(), any(), any());
+
+        itemService.createItem(owner.getId(), new ItemCreationDto(0, "new item", "new description", true));
+
+        assertEquals(2, itemRepository.count());
+    }
+
+    @Test
+    void createBooking_whenFailsAfterInsert_thenBookingRolledBack() {
+        BookingCreationDto bookingDto = new BookingCreationDto(item.getId(), LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2));
+        // Строка вещи заблокирована, пересечения проверены и бронирование вставлено до сбоя
+        doThrow(new IllegalStateException("mapping failure")).when(bookingMapper).toDto(any(Booking.class));
+
+        assertThrows(IllegalStateException.class, () -> bookingService.createBooking(booker.getId(), bookingDto));
+
+        assertEquals(1, bookingRepository.count());
+
+        // После отката блокировка снята, а вставленная строка не мешает повторному бронированию тех же дат
+        reset(bookingMapper);
+        bookingService.createBooking(booker.getId(), bookingDto);
+
+        assertEquals(2, bookingRepository.count());
+    }
+}
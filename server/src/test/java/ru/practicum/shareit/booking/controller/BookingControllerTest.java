@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,15 +21,20 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dto.UserIdDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utils.PageCursor;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -45,6 +51,7 @@ class BookingControllerTest {
     private BookingService bookingService;
 
     private static final String HEADER_NAME = "X-Sharer-User-Id";
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
 
     private User owner;
     private User booker;
@@ -142,7 +149,7 @@ class BookingControllerTest {
     @Test
     @SneakyThrows
     void getAllBookingsByUser() {
-        when(bookingService.getAllBookingsByUser(anyLong(), any(), anyInt(), anyInt(), anyBoolean()))
+        when(bookingService.getAllBookingsByUser(anyLong(), any(), anyInt(), anyInt(), any(), anyBoolean()))
                 .thenReturn(List.of(bookingDto));
 
         mockMvc.perform(get("/bookings")
@@ -160,10 +167,38 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].item.name").value(booking.getItem().getName()));
     }
 
+    @Test
+    @SneakyThrows
+    void getAllBookingsByUser_whenAcceptSmile_thenReturnSameBookingsInSmallerSmileBody() {
+        when(bookingService.getAllBookingsByUser(anyLong(), any(), anyInt(), anyInt(), any(), anyBoolean()))
+                .thenReturn(List.of(bookingDto, bookingDto, bookingDto));
+
+        byte[] json = mockMvc.perform(get("/bookings")
+                        .header(HEADER_NAME, booker.getId())
+                        .param("state", "ALL")
+                        .param("from", "0")
+                        .param("size", "10")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] smile = mockMvc.perform(get("/bookings")
+                        .header(HEADER_NAME, booker.getId())
+                        .param("state", "ALL")
+                        .param("from", "0")
+                        .param("size", "10")
+                        .accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(objectMapper.readTree(json), new ObjectMapper(new SmileFactory()).readTree(smile));
+        assertTrue(smile.length < json.length);
+    }
+
     @Test
     @SneakyThrows
     void getAllBookingsByOwner() {
-        when(bookingService.getAllBookingsByUser(anyLong(), any(), anyInt(), anyInt(), anyBoolean()))
+        when(bookingService.getAllBookingsByUser(anyLong(), any(), anyInt(), anyInt(), any(), anyBoolean()))
                 .thenReturn(List.of(bookingDto));
 
         mockMvc.perform(get("/bookings")
@@ -180,4 +215,39 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].item.id").value(booking.getItem().getId()))
                 .andExpect(jsonPath("$[0].item.name").value(booking.getItem().getName()));
     }
-}
\ No newline at end of file
+
+    @Test
+    @SneakyThrows
+    void getAllBookingsByUser_whenPageIsFull_thenReturnNextCursor() {
+        when(bookingService.getAllBookingsByUser(anyLong(), any(), anyInt(), anyInt(), any(), anyBoolean()))
+                .thenReturn(List.of(bookingDto));
+
+        mockMvc.perform(get("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HEADER_NAME, booker.getId())
+                        .param("state", "ALL")
+                        .param("from", "0")
+                        .param("size", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(PageCursor.HEADER_NAME,
+                        PageCursor.encode(bookingDto.getStart(), bookingDto.getId())));
+    }
+
+    @Test
+    @SneakyThrows
+    void getAllBookingsByUser_whenPageIsNotFull_thenReturnWithoutNextCursor() {
+        when(bookingService.getAllBookingsByUser(anyLong(), any(), anyInt(), anyInt(), any(), anyBoolean()))
+                .thenReturn(List.of(bookingDto));
+
+        mockMvc.perform(get("/bookings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HEADER_NAME, booker.getId())
+                        .param("state", "ALL")
+                        .param("from", "0")
+                        .param("size", "10"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(PageCursor.HEADER_NAME));
+    }
+}
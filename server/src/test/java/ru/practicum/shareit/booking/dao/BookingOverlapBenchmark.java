@@ -0,0 +1,117 @@
+package ru.practicum.shareit.booking.dao;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.BenchmarkContext;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка пересечения нового бронирования вещи с существующими: запрос exists по индексу
+ * (BookingRepository.existsNotRejectedByItemIdAndStartBeforeAndEndAfter) против прежней загрузки всех
+ * бронирований вещи и перебора их в Java. У вещи bookings прошедших бронирований, запрашиваемый период
+ * в будущем и ни с одним не пересекается, поэтому перебор проходит весь список.
+ * <p>
+ * Не запускается вместе с тестами. Запуск:
+ * <pre>
+ * mvn -pl server test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ * java -cp server/target/test-classes:server/target/classes:$(cat server/target/test.classpath) \
+ *     ru.practicum.shareit.booking.dao.BookingOverlapBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingOverlapBenchmark {
+
+    @Param({"100", "10000"})
+    private int bookings;
+
+    private ConfigurableApplicationContext context;
+    private BookingRepository bookingRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private long itemId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookingRepository = context.getBean(BookingRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long ownerId = BenchmarkContext.insertUser(jdbcTemplate, "owner");
+        long bookerId = BenchmarkContext.insertUser(jdbcTemplate, "booker");
+        itemId = BenchmarkContext.insertItem(jdbcTemplate, ownerId, "Дрель");
+        LocalDateTime now = LocalDateTime.now();
+        BenchmarkContext.insertBookings(jdbcTemplate, itemId, bookerId, now.minusDays(bookings + 1), bookings,
+                i -> "APPROVED");
+        start = now.plusDays(1);
+        end = now.plusDays(2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean existsQuery() {
+        return transactionTemplate.execute(status ->
+                bookingRepository.existsNotRejectedByItemIdAndStartBeforeAndEndAfter(itemId, end, start));
+    }
+
+    // Как checkItemBookings до перехода на запрос exists
+    @Benchmark
+    public boolean loadAllAndScan() {
+        return transactionTemplate.execute(status -> {
+            List<Booking> existing = entityManager
+                    .createQuery("select b from Booking b where b.item.id = :itemId", Booking.class)
+                    .setParameter("itemId", itemId)
+                    .getResultList();
+            for (Booking booking : existing) {
+                if (start.isBefore(booking.getEnd()) && booking.getStart().isBefore(end)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(BookingOverlapBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
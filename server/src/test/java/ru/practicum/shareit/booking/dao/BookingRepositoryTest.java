@@ -15,12 +15,15 @@ import ru.practicum.shareit.request.dao.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utils.PageCursor;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 class BookingRepositoryTest {
@@ -41,9 +44,14 @@ class BookingRepositoryTest {
     private User booker;
     private Item item;
     private Booking booking;
+    private LocalDateTime cursorStart;
+    private long cursorId;
 
     @BeforeEach
     void setUp() {
+        PageCursor firstPage = PageCursor.descending(null);
+        cursorStart = firstPage.getSortKey();
+        cursorId = firstPage.getId();
         owner = new User(0, "owner", "email@owner.com");
         User requestor = new User(0, "requestor", "email@requestor.com");
         booker = new User(0, "booker", "email@booker.com");
@@ -63,29 +71,133 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByItemId() {
-        List<Booking> foundBookings = bookingRepository.findByItemId(item.getId());
+    void findByBookerId() {
+        Pageable pageable = PageRequest.of(0 / 10, 10, Sort.by("start").descending());
+        List<BookingView> foundBookings = bookingRepository.findByBookerId(booker.getId(), cursorStart, cursorId,
+                pageable);
 
         assertFalse(foundBookings.isEmpty());
-        assertEquals(item.getId(), foundBookings.get(0).getItem().getId());
+        assertEquals(booker.getId(), foundBookings.get(0).getBookerId());
+        assertEquals(item.getName(), foundBookings.get(0).getItemName());
     }
 
     @Test
-    void findByBookerId() {
+    void findByOwnerId() {
         Pageable pageable = PageRequest.of(0 / 10, 10, Sort.by("start").descending());
-        List<Booking> foundBookings = bookingRepository.findByBookerId(booker.getId(), pageable);
+        List<BookingView> foundBookings = bookingRepository.findByOwnerId(owner.getId(), cursorStart, cursorId,
+                pageable);
 
         assertFalse(foundBookings.isEmpty());
-        assertEquals(booker.getId(), foundBookings.get(0).getBooker().getId());
+        assertEquals(item.getId(), foundBookings.get(0).getItemId());
     }
 
     @Test
-    void findByOwnerId() {
-        Pageable pageable = PageRequest.of(0 / 10, 10, Sort.by("start").descending());
-        List<Booking> foundBookings = bookingRepository.findByOwnerId(owner.getId(), pageable);
+    void findByBookerIdAndStatus() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("start").descending());
 
-        assertFalse(foundBookings.isEmpty());
-        assertEquals(owner.getId(), foundBookings.get(0).getItem().getOwner().getId());
+        assertEquals(1, bookingRepository.findByBookerIdAndStatus(booker.getId(), BookingStatus.WAITING,
+                cursorStart, cursorId, pageable).size());
+        assertTrue(bookingRepository.findByBookerIdAndStatus(booker.getId(), BookingStatus.REJECTED,
+                cursorStart, cursorId, pageable).isEmpty());
+    }
+
+    @Test
+    void findByBookerIdAndTime() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("start").descending());
+        LocalDateTime now = LocalDateTime.now();
+
+        assertEquals(1, bookingRepository.findFutureByBookerId(booker.getId(), now,
+                cursorStart, cursorId, pageable).size());
+        assertTrue(bookingRepository.findPastByBookerId(booker.getId(), now,
+                cursorStart, cursorId, pageable).isEmpty());
+        assertTrue(bookingRepository.findCurrentByBookerId(booker.getId(), now,
+                cursorStart, cursorId, pageable).isEmpty());
+    }
+
+    @Test
+    void findByOwnerIdAndStatus() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("start").descending());
+
+        assertEquals(1, bookingRepository.findByOwnerIdAndStatus(owner.getId(), BookingStatus.WAITING,
+                cursorStart, cursorId, pageable).size());
+        assertTrue(bookingRepository.findByOwnerIdAndStatus(owner.getId(), BookingStatus.REJECTED,
+                cursorStart, cursorId, pageable).isEmpty());
+    }
+
+    @Test
+    void findByOwnerIdAndTime() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("start").descending());
+        booking.setStart(LocalDateTime.now().minusHours(1));
+        bookingRepository.save(booking);
+        LocalDateTime now = LocalDateTime.now();
+
+        assertEquals(1, bookingRepository.findCurrentByOwnerId(owner.getId(), now,
+                cursorStart, cursorId, pageable).size());
+        assertTrue(bookingRepository.findPastByOwnerId(owner.getId(), now, cursorStart, cursorId, pageable).isEmpty());
+        assertTrue(bookingRepository.findFutureByOwnerId(owner.getId(), now,
+                cursorStart, cursorId, pageable).isEmpty());
+    }
+
+    @Test
+    void findByOwnerIdAndStatus_whenPageIsFull_thenReturnExactPage() {
+        for (int i = 0; i < 3; i++) {
+            bookingRepository.save(new Booking(0, LocalDateTime.now().minusDays(i + 2),
+                    LocalDateTime.now().minusDays(i + 1), item, booker, BookingStatus.REJECTED));
+        }
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("start").descending());
+
+        assertEquals(2, bookingRepository.findByOwnerIdAndStatus(owner.getId(), BookingStatus.REJECTED,
+                cursorStart, cursorId, pageable).size());
+        assertEquals(1, bookingRepository.findByOwnerIdAndStatus(owner.getId(), BookingStatus.WAITING,
+                cursorStart, cursorId, pageable).size());
+    }
+
+    @Test
+    void findByBookerId_whenCursorGiven_thenReturnBookingsAfterCursor() {
+        booking.setStart(booking.getStart().truncatedTo(ChronoUnit.SECONDS));
+        bookingRepository.save(booking);
+        Booking earlierBooking = bookingRepository.save(new Booking(0, booking.getStart().minusDays(1),
+                booking.getEnd().minusDays(1), item, booker, BookingStatus.APPROVED));
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("start").descending().and(Sort.by("id").descending()));
+
+        List<BookingView> firstPage = bookingRepository.findByBookerId(booker.getId(), cursorStart, cursorId,
+                pageable);
+        BookingView last = firstPage.get(0);
+        List<BookingView> secondPage = bookingRepository.findByBookerId(booker.getId(), last.getStart(), last.getId(),
+                pageable);
+
+        assertEquals(booking.getId(), last.getId());
+        assertEquals(List.of(earlierBooking.getId()), List.of(secondPage.get(0).getId()));
+    }
+
+    @Test
+    void existsNotRejectedByItemIdAndStartBeforeAndEndAfter_whenPeriodsOverlap_thenReturnTrue() {
+        boolean isOverlapping = bookingRepository.existsNotRejectedByItemIdAndStartBeforeAndEndAfter(item.getId(),
+                booking.getEnd().plusHours(1), booking.getStart().plusMinutes(30));
+
+        assertTrue(isOverlapping);
+    }
+
+    @Test
+    void existsNotRejectedByItemIdAndStartBeforeAndEndAfter_whenPeriodsAdjoin_thenReturnFalse() {
+        booking.setEnd(booking.getEnd().truncatedTo(ChronoUnit.SECONDS));
+        bookingRepository.save(booking);
+
+        boolean isOverlapping = bookingRepository.existsNotRejectedByItemIdAndStartBeforeAndEndAfter(item.getId(),
+                booking.getEnd().plusHours(1), booking.getEnd());
+
+        assertFalse(isOverlapping);
+    }
+
+    @Test
+    void existsNotRejectedByItemIdAndStartBeforeAndEndAfter_whenBookingRejected_thenReturnFalse() {
+        booking.setStatus(BookingStatus.REJECTED);
+        bookingRepository.save(booking);
+
+        boolean isOverlapping = bookingRepository.existsNotRejectedByItemIdAndStartBeforeAndEndAfter(item.getId(),
+                booking.getEnd(), booking.getStart());
+
+        assertFalse(isOverlapping);
     }
 
     @Test
@@ -101,4 +213,29 @@ class BookingRepositoryTest {
         assertEquals(item.getId(), foundBookings.get(0).getItem().getId());
         assertEquals(booker.getId(), foundBookings.get(0).getBooker().getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findLastBookingsAndFindNextBookings() {
+        Item otherItem = itemRepository.save(new Item(0, "other name", "other desc", true, owner, null));
+        Booking past = bookingRepository.save(new Booking(0, LocalDateTime.now().minusDays(3),
+                LocalDateTime.now().minusDays(2), item, booker, BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(0, LocalDateTime.now().minusDays(5), LocalDateTime.now().minusDays(4),
+                item, booker, BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(0, LocalDateTime.now().plusMinutes(30), LocalDateTime.now().plusMinutes(40),
+                item, booker, BookingStatus.REJECTED));
+        bookingRepository.save(new Booking(0, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(4),
+                item, booker, BookingStatus.APPROVED));
+        Booking otherNext = bookingRepository.save(new Booking(0, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), otherItem, booker, BookingStatus.WAITING));
+        List<Long> itemIds = List.of(item.getId(), otherItem.getId());
+
+        List<Booking> lastBookings = bookingRepository.findLastBookings(itemIds, LocalDateTime.now());
+        List<Booking> nextBookings = bookingRepository.findNextBookings(itemIds, LocalDateTime.now());
+
+        assertEquals(1, lastBookings.size());
+        assertEquals(past.getId(), lastBookings.get(0).getId());
+        assertEquals(2, nextBookings.size());
+        assertTrue(nextBookings.stream().anyMatch(b -> b.getId() == booking.getId()));
+        assertTrue(nextBookings.stream().anyMatch(b -> b.getId() == otherNext.getId()));
+    }
+}
@@ -0,0 +1,148 @@
+package ru.practicum.shareit.booking.dao;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.BenchmarkContext;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.utils.PageCursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Страница списка бронирований букера (10 000 бронирований на 100 вещах): BookingView
+ * (BookingRepository.findByBookerId) против прежней загрузки сущностей Booking с вещью. Обе выборки
+ * читают size строк; BookingView выбирает семь колонок и не создаёт сущностей в контексте персистентности.
+ * Число загруженных сущностей на страницу печатается при подготовке по статистике Hibernate,
+ * выделение памяти на страницу показывает профилировщик -prof gc.
+ * <p>
+ * Не запускается вместе с тестами. Запуск:
+ * <pre>
+ * mvn -pl server test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ * java -cp server/target/test-classes:server/target/classes:$(cat server/target/test.classpath) \
+ *     ru.practicum.shareit.booking.dao.BookingViewBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingViewBenchmark {
+
+    private static final int ITEMS = 100;
+    private static final int BOOKINGS_PER_ITEM = 100;
+
+    @Param({"20", "200"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private BookingRepository bookingRepository;
+    private BookingMapper bookingMapper;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private long bookerId;
+    private Pageable pageable;
+    private PageCursor firstPage;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookingRepository = context.getBean(BookingRepository.class);
+        bookingMapper = context.getBean(BookingMapper.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long ownerId = BenchmarkContext.insertUser(jdbcTemplate, "owner");
+        bookerId = BenchmarkContext.insertUser(jdbcTemplate, "booker");
+        LocalDateTime first = LocalDateTime.now().minusDays(BOOKINGS_PER_ITEM);
+        for (int i = 0; i < ITEMS; i++) {
+            long itemId = BenchmarkContext.insertItem(jdbcTemplate, ownerId, "Вещь " + i);
+            BenchmarkContext.insertBookings(jdbcTemplate, itemId, bookerId, first.plusHours(i), BOOKINGS_PER_ITEM,
+                    index -> "APPROVED");
+        }
+        pageable = PageRequest.of(0, size, Sort.by("start").descending().and(Sort.by("id").descending()));
+        firstPage = PageCursor.descending(null);
+
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class)
+                .getStatistics();
+        System.out.println("Сущностей на страницу: BookingView " + entityLoads(statistics, this::bookingView)
+                + ", сущности " + entityLoads(statistics, this::entities));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingDto> bookingView() {
+        return transactionTemplate.execute(status -> bookingRepository.findByBookerId(bookerId,
+                        firstPage.getSortKey(), firstPage.getId(), pageable).stream()
+                .map(bookingMapper::toDto)
+                .collect(Collectors.toList()));
+    }
+
+    // Как списки бронирований до перехода на BookingView: сущности с вещью, то же условие и порядок
+    @Benchmark
+    public List<BookingDto> entities() {
+        return transactionTemplate.execute(status -> entityManager.createQuery("select b from Booking b " +
+                        "join fetch b.item where b.booker.id = :bookerId " +
+                        "and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId)) " +
+                        "order by b.start desc, b.id desc", Booking.class)
+                .setParameter("bookerId", bookerId)
+                .setParameter("cursorStart", firstPage.getSortKey())
+                .setParameter("cursorId", firstPage.getId())
+                .setMaxResults(size)
+                .getResultList().stream()
+                .map(bookingMapper::toDto)
+                .collect(Collectors.toList()));
+    }
+
+    private static long entityLoads(Statistics statistics, Supplier<List<BookingDto>> page) {
+        long before = statistics.getEntityLoadCount();
+        page.get();
+        return statistics.getEntityLoadCount() - before;
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(BookingViewBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dao.BookingView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utils.PageCursor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class BookingArchiverTest {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private final Pageable pageable = PageRequest.of(0, 10, Sort.by("start").descending()
+            .and(Sort.by("id").descending()));
+
+    private final PageCursor firstPage = PageCursor.descending(null);
+
+    private BookingArchiver bookingArchiver;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        bookingArchiver = new BookingArchiver(bookingRepository, transactionTemplate, Duration.ofDays(30), 1000);
+        User owner = userRepository.save(new User(0, "owner", "email@owner.com"));
+        booker = userRepository.save(new User(0, "booker", "email@booker.com"));
+        item = itemRepository.save(new Item(0, "item name", "item desc", true, owner, null));
+    }
+
+    @Test
+    void archiveCompletedBookings_whenEndedLongAgoAndCommented_thenArchived() {
+        Booking booking = saveBooking(now.minusDays(62), now.minusDays(61), BookingStatus.APPROVED);
+        commentRepository.save(new Comment(0, "comment", item, booker, now.minusDays(60)));
+
+        assertEquals(1, bookingArchiver.archiveCompletedBookings());
+
+        entityManager.clear();
+        assertTrue(bookingRepository.findById(booking.getId()).orElseThrow().isArchived());
+    }
+
+    @Test
+    void archiveCompletedBookings_whenNotCommentedOrRecentOrNotApproved_thenKeptHot() {
+        saveBooking(now.minusDays(62), now.minusDays(61), BookingStatus.APPROVED);
+        assertEquals(0, bookingArchiver.archiveCompletedBookings());
+
+        commentRepository.save(new Comment(0, "comment", item, booker, now.minusDays(1)));
+        saveBooking(now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        saveBooking(now.minusDays(62), now.minusDays(61), BookingStatus.REJECTED);
+        saveBooking(now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+
+        // Отзыв появился, поэтому уходит только первое бронирование
+        assertEquals(1, bookingArchiver.archiveCompletedBookings());
+    }
+
+    @Test
+    void archiveCompletedBookings_whenMoreThanBatch_thenArchivedInSeveralBatches() {
+        bookingArchiver = new BookingArchiver(bookingRepository, transactionTemplate, Duration.ofDays(30), 2);
+        for (int i = 0; i < 5; i++) {
+            saveBooking(now.minusDays(62 + i), now.minusDays(61 + i), BookingStatus.APPROVED);
+        }
+        commentRepository.save(new Comment(0, "comment", item, booker, now.minusDays(60)));
+
+        assertEquals(5, bookingArchiver.archiveCompletedBookings());
+        assertEquals(0, bookingArchiver.archiveCompletedBookings());
+    }
+
+    @Test
+    void archivedBookings_thenVisibleInHistoryOnly() {
+        Booking past = saveBooking(now.minusDays(62), now.minusDays(61), BookingStatus.APPROVED);
+        commentRepository.save(new Comment(0, "comment", item, booker, now.minusDays(60)));
+        bookingArchiver.archiveCompletedBookings();
+        entityManager.clear();
+
+        assertEquals(List.of(past.getId()), ids(bookingRepository.findPastByBookerId(booker.getId(), now,
+                firstPage.getSortKey(), firstPage.getId(), pageable)));
+        assertEquals(List.of(past.getId()), ids(bookingRepository.findByBookerId(booker.getId(),
+                firstPage.getSortKey(), firstPage.getId(), pageable)));
+        assertEquals(1, bookingRepository.findLastBookings(List.of(item.getId()), now).size());
+    }
+
+    @Test
+    void hotQueries_whenBookingArchived_thenNotSeen() {
+        // Архивируются только завершённые бронирования; флаг выставлен вручную, чтобы проверить условия запросов
+        Booking future = saveBooking(now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+        future.setArchived(true);
+        entityManager.flush();
+
+        assertTrue(bookingRepository.findFutureByBookerId(booker.getId(), now, firstPage.getSortKey(),
+                firstPage.getId(), pageable).isEmpty());
+        assertTrue(bookingRepository.findByBookerIdAndStatus(booker.getId(), BookingStatus.WAITING,
+                firstPage.getSortKey(), firstPage.getId(), pageable).isEmpty());
+        assertTrue(bookingRepository.findNextBookings(List.of(item.getId()), now).isEmpty());
+        assertFalse(bookingRepository.existsNotRejectedByItemIdAndStartBeforeAndEndAfter(item.getId(),
+                now.plusDays(3), now));
+    }
+
+    private Booking saveBooking(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(new Booking(0, start, end, item, booker, status));
+    }
+
+    private static List<Long> ids(List<BookingView> bookings) {
+        return bookings.stream().map(BookingView::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.booking.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.BenchmarkContext;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Страница списка бронирований в состоянии REJECTED для пользователя со 100 000 бронирований, из которых
+ * отклонено каждое сотое: фильтрация в запросе (BookingService.getAllBookingsByUser) против прежней схемы,
+ * где из БД читалась страница всех бронирований, а состояние отбиралось в Java.
+ * Прежняя схема измеряется дважды: одна страница, как она и работала (в ответе почти ничего не остаётся),
+ * и чтение страниц по OFFSET, пока не наберётся полная страница отклонённых, то есть цена того же ответа.
+ * Для прежних запросов вещь и букер подгружаются join fetch, чтобы сравнивалась только фильтрация.
+ * <p>
+ * Не запускается вместе с тестами. Запуск:
+ * <pre>
+ * mvn -pl server test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ * java -cp server/target/test-classes:server/target/classes:$(cat server/target/test.classpath) \
+ *     ru.practicum.shareit.booking.service.BookingListBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingListBenchmark {
+
+    private static final int BOOKINGS = 100_000;
+    private static final int REJECTED_EVERY = 100;
+    private static final int PAGE_SIZE = 20;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private BookingMapper bookingMapper;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private long bookerId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookingService = context.getBean(BookingService.class);
+        bookingMapper = context.getBean(BookingMapper.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long ownerId = BenchmarkContext.insertUser(jdbcTemplate, "owner");
+        bookerId = BenchmarkContext.insertUser(jdbcTemplate, "booker");
+        long itemId = BenchmarkContext.insertItem(jdbcTemplate, ownerId, "Дрель");
+        BenchmarkContext.insertBookings(jdbcTemplate, itemId, bookerId, LocalDateTime.now().minusDays(BOOKINGS),
+                BOOKINGS, i -> i % REJECTED_EVERY == 0 ? "REJECTED" : "APPROVED");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingDto> stateQuery() {
+        return bookingService.getAllBookingsByUser(bookerId, BookingState.REJECTED, 0, PAGE_SIZE, null, false);
+    }
+
+    @Benchmark
+    public List<BookingDto> pageThenFilter() {
+        return transactionTemplate.execute(status -> filter(page(0)));
+    }
+
+    // Одна операция занимает секунды, поэтому итераций меньше
+    @Benchmark
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public List<BookingDto> pagesThenFilterUntilFull() {
+        return transactionTemplate.execute(status -> {
+            List<BookingDto> result = new ArrayList<>(PAGE_SIZE);
+            for (int from = 0; result.size() < PAGE_SIZE; from += PAGE_SIZE) {
+                List<Booking> page = page(from);
+                result.addAll(filter(page));
+                if (page.size() < PAGE_SIZE) {
+                    break;
+                }
+            }
+            return result.size() > PAGE_SIZE ? result.subList(0, PAGE_SIZE) : result;
+        });
+    }
+
+    private List<Booking> page(int from) {
+        return entityManager.createQuery("select b from Booking b join fetch b.item join fetch b.booker " +
+                        "where b.booker.id = :bookerId order by b.start desc", Booking.class)
+                .setParameter("bookerId", bookerId)
+                .setFirstResult(from)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+    }
+
+    private List<BookingDto> filter(List<Booking> page) {
+        return page.stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.REJECTED)
+                .map(bookingMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(BookingListBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
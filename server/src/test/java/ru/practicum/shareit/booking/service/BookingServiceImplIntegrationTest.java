@@ -11,6 +11,7 @@ import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -18,7 +19,12 @@ import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -75,6 +81,38 @@ class BookingServiceImplIntegrationTest {
         assertEquals(3, actualBookingDto.getBooker().getId());
     }
 
+    @Test
+    void createBooking_whenConcurrentOverlappingRequests_thenOnlyOneIsSaved() throws InterruptedException {
+        int requestsCount = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        List<Future<BookingDto>> results = new ArrayList<>();
+        for (int i = 0; i < requestsCount; i++) {
+            long minutesShift = i % 30;
+            BookingCreationDto overlappingDto = new BookingCreationDto(bookingCreationDto.getItemId(),
+                    bookingCreationDto.getStart().plusMinutes(minutesShift),
+                    bookingCreationDto.getEnd().plusMinutes(minutesShift));
+            results.add(executor.submit(() -> bookingService.createBooking(booker.getId(), overlappingDto)));
+        }
+        executor.shutdown();
+
+        int savedCount = 0;
+        int conflictCount = 0;
+        for (Future<BookingDto> result : results) {
+            try {
+                result.get();
+                savedCount++;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ConflictException) {
+                    conflictCount++;
+                }
+            }
+        }
+
+        assertEquals(1, savedCount);
+        assertEquals(requestsCount - 1, conflictCount);
+        assertEquals(1, bookingRepository.count());
+    }
+
     @Test
     void considerationOfRequest() {
         Booking savedBooking = bookingRepository.save(booking);
@@ -99,7 +137,7 @@ class BookingServiceImplIntegrationTest {
     void getAllBookingsByUser_whenIsOwner_thenReturnBookingDto() {
         bookingRepository.save(booking);
         List<BookingDto> actualBookingDto = bookingService.getAllBookingsByUser(owner.getId(), BookingState.ALL,
-                0, 10, true);
+                0, 10, null, true);
 
         assertEquals(1, actualBookingDto.get(0).getId());
         assertEquals(BookingStatus.WAITING, actualBookingDto.get(0).getStatus());
@@ -111,7 +149,7 @@ class BookingServiceImplIntegrationTest {
     void getAllBookingsByUser_whenIsBooker_thenReturnBookingDto() {
         bookingRepository.save(booking);
         List<BookingDto> actualBookingDto = bookingService.getAllBookingsByUser(booker.getId(), BookingState.ALL,
-                0, 10, false);
+                0, 10, null, false);
 
         assertEquals(1, actualBookingDto.get(0).getId());
         assertEquals(BookingStatus.WAITING, actualBookingDto.get(0).getStatus());
@@ -9,6 +9,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dao.BookingView;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -29,7 +30,6 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -55,6 +55,8 @@ class BookingServiceImplUnitTest {
     private BookingMapper mapper;
     @Captor
     ArgumentCaptor<Booking> bookingArgumentCaptor;
+    @Captor
+    ArgumentCaptor<BookingView> bookingViewArgumentCaptor;
 
     private User owner;
     private User booker;
@@ -89,8 +91,9 @@ class BookingServiceImplUnitTest {
     @Test
     void createBooking() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.findByItemId(anyLong())).thenReturn(Collections.emptyList());
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.existsNotRejectedByItemIdAndStartBeforeAndEndAfter(anyLong(), any(), any()))
+                .thenReturn(false);
         when(mapper.toBooking(any(), any(), any())).thenReturn(booking);
         when(bookingRepository.save(any())).thenReturn(booking);
         when(mapper.toDto(booking)).thenReturn(bookingDto);
@@ -106,11 +109,12 @@ class BookingServiceImplUnitTest {
                 LocalDateTime.now().plusHours(3));
 
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
 
         assertThrows(NotFoundException.class, () -> bookingService.createBooking(owner.getId(), bookingCreationDto));
 
-        verify(bookingRepository, never()).findByItemId(anyLong());
+        verify(bookingRepository, never()).existsNotRejectedByItemIdAndStartBeforeAndEndAfter(anyLong(), any(),
+                any());
         verify(mapper, never()).toDto(any(Booking.class));
         verify(bookingRepository, never()).save(any());
         verify(mapper, never()).toDto(any(Booking.class));
@@ -123,11 +127,12 @@ class BookingServiceImplUnitTest {
                 LocalDateTime.now().plusHours(3));
 
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
 
         assertThrows(ValidationException.class, () -> bookingService.createBooking(booker.getId(), bookingCreationDto));
 
-        verify(bookingRepository, never()).findByItemId(anyLong());
+        verify(bookingRepository, never()).existsNotRejectedByItemIdAndStartBeforeAndEndAfter(anyLong(), any(),
+                any());
         verify(mapper, never()).toDto(any(Booking.class));
         verify(bookingRepository, never()).save(any());
         verify(mapper, never()).toDto(any(Booking.class));
@@ -139,11 +144,12 @@ class BookingServiceImplUnitTest {
                 LocalDateTime.now().plusHours(1));
 
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
 
         assertThrows(ValidationException.class, () -> bookingService.createBooking(booker.getId(), bookingCreationDto));
 
-        verify(bookingRepository, never()).findByItemId(anyLong());
+        verify(bookingRepository, never()).existsNotRejectedByItemIdAndStartBeforeAndEndAfter(anyLong(), any(),
+                any());
         verify(mapper, never()).toDto(any(Booking.class));
         verify(bookingRepository, never()).save(any());
         verify(mapper, never()).toDto(any(Booking.class));
@@ -153,16 +159,16 @@ class BookingServiceImplUnitTest {
     void createBooking_whenBookingsIsOverlapping_thenReturnConflictException() {
         BookingCreationDto bookingCreationDto = new BookingCreationDto(item.getId(), LocalDateTime.now(),
                 LocalDateTime.now().plusHours(2));
-        Booking existingBooking = new Booking(42, LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1),
-                item, booker, BookingStatus.APPROVED);
 
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.findByItemId(anyLong())).thenReturn(List.of(existingBooking));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.existsNotRejectedByItemIdAndStartBeforeAndEndAfter(anyLong(), any(), any()))
+                .thenReturn(true);
 
         assertThrows(ConflictException.class, () -> bookingService.createBooking(booker.getId(), bookingCreationDto));
 
-        verify(bookingRepository, times(1)).findByItemId(anyLong());
+        verify(bookingRepository, times(1)).existsNotRejectedByItemIdAndStartBeforeAndEndAfter(anyLong(), any(),
+                any());
         verify(mapper, never()).toDto(any(Booking.class));
         verify(bookingRepository, never()).save(any());
         verify(mapper, never()).toDto(any(Booking.class));
@@ -177,8 +183,9 @@ class BookingServiceImplUnitTest {
 
         assertThrows(NotFoundException.class, () -> bookingService.createBooking(42, bookingCreationDto));
 
-        verify(itemRepository, never()).findById(anyLong());
-        verify(bookingRepository, never()).findByItemId(anyLong());
+        verify(itemRepository, never()).findByIdForUpdate(anyLong());
+        verify(bookingRepository, never()).existsNotRejectedByItemIdAndStartBeforeAndEndAfter(anyLong(), any(),
+                any());
         verify(mapper, never()).toDto(any(Booking.class));
         verify(bookingRepository, never()).save(any());
         verify(mapper, never()).toDto(any(Booking.class));
@@ -190,12 +197,13 @@ class BookingServiceImplUnitTest {
                 LocalDateTime.now().plusHours(2));
 
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> bookingService.createBooking(booker.getId(), bookingCreationDto));
 
-        verify(itemRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, never()).findByItemId(anyLong());
+        verify(itemRepository, times(1)).findByIdForUpdate(anyLong());
+        verify(bookingRepository, never()).existsNotRejectedByItemIdAndStartBeforeAndEndAfter(anyLong(), any(),
+                any());
         verify(mapper, never()).toDto(any(Booking.class));
         verify(bookingRepository, never()).save(any());
         verify(mapper, never()).toDto(any(Booking.class));
@@ -280,16 +288,16 @@ class BookingServiceImplUnitTest {
 
     @Test
     void getAllBookingsByUser_whenIsOwnerAndStateIsWaiting_thenReturnBookingDto() {
-        when(userService.getUserById(anyLong())).thenReturn(userDto);
-        when(bookingRepository.findByOwnerId(anyLong(), any())).thenReturn(List.of(booking));
-        when(mapper.toDto(any(Booking.class))).thenReturn(bookingDto);
+        when(bookingRepository.findByOwnerIdAndStatus(anyLong(), eq(BookingStatus.WAITING), any(), anyLong(),
+                any())).thenReturn(List.of(toView(booking)));
+        when(mapper.toDto(any(BookingView.class))).thenReturn(bookingDto);
 
         List<BookingDto> actualBookingDto = bookingService.getAllBookingsByUser(owner.getId(), BookingState.WAITING,
-                0, 10, true);
+                0, 10, null, true);
 
         assertEquals(List.of(bookingDto), actualBookingDto);
-        verify(mapper).toDto(bookingArgumentCaptor.capture());
-        BookingStatus actualStatus = bookingArgumentCaptor.getValue().getStatus();
+        verify(mapper).toDto(bookingViewArgumentCaptor.capture());
+        BookingStatus actualStatus = bookingViewArgumentCaptor.getValue().getStatus();
         assertEquals(BookingStatus.WAITING, actualStatus);
     }
 
@@ -297,16 +305,16 @@ class BookingServiceImplUnitTest {
     void getAllBookingsByUser_whenIsOwnerAndStateIsRejected_thenReturnBookingDto() {
         booking.setStatus(BookingStatus.REJECTED);
 
-        when(userService.getUserById(anyLong())).thenReturn(userDto);
-        when(bookingRepository.findByOwnerId(anyLong(), any())).thenReturn(List.of(booking));
-        when(mapper.toDto(any(Booking.class))).thenReturn(bookingDto);
+        when(bookingRepository.findByOwnerIdAndStatus(anyLong(), eq(BookingStatus.REJECTED), any(), anyLong(),
+                any())).thenReturn(List.of(toView(booking)));
+        when(mapper.toDto(any(BookingView.class))).thenReturn(bookingDto);
 
         List<BookingDto> actualBookingDto = bookingService.getAllBookingsByUser(owner.getId(), BookingState.REJECTED,
-                0, 10, true);
+                0, 10, null, true);
 
         assertEquals(List.of(bookingDto), actualBookingDto);
-        verify(mapper).toDto(bookingArgumentCaptor.capture());
-        BookingStatus actualStatus = bookingArgumentCaptor.getValue().getStatus();
+        verify(mapper).toDto(bookingViewArgumentCaptor.capture());
+        BookingStatus actualStatus = bookingViewArgumentCaptor.getValue().getStatus();
         assertEquals(BookingStatus.REJECTED, actualStatus);
     }
 
@@ -315,14 +323,14 @@ class BookingServiceImplUnitTest {
         booking.setStart(LocalDateTime.now().minusHours(2));
         booking.setEnd(LocalDateTime.now().minusHours(1));
 
-        when(userService.getUserById(anyLong())).thenReturn(userDto);
-        when(bookingRepository.findByOwnerId(anyLong(), any())).thenReturn(List.of(booking));
-        when(mapper.toDto(any(Booking.class))).thenReturn(bookingDto);
+        when(bookingRepository.findPastByOwnerId(anyLong(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(toView(booking)));
+        when(mapper.toDto(any(BookingView.class))).thenReturn(bookingDto);
 
-        bookingService.getAllBookingsByUser(owner.getId(), BookingState.PAST, 0, 10, true);
+        bookingService.getAllBookingsByUser(owner.getId(), BookingState.PAST, 0, 10, null, true);
 
-        verify(mapper).toDto(bookingArgumentCaptor.capture());
-        Booking actualBooking = bookingArgumentCaptor.getValue();
+        verify(mapper).toDto(bookingViewArgumentCaptor.capture());
+        BookingView actualBooking = bookingViewArgumentCaptor.getValue();
 
         assertTrue(actualBooking.getEnd().isBefore(LocalDateTime.now()));
     }
@@ -332,14 +340,14 @@ class BookingServiceImplUnitTest {
         booking.setStart(LocalDateTime.now().minusHours(1));
         booking.setEnd(LocalDateTime.now().plusHours(1));
 
-        when(userService.getUserById(anyLong())).thenReturn(userDto);
-        when(bookingRepository.findByOwnerId(anyLong(), any())).thenReturn(List.of(booking));
-        when(mapper.toDto(any(Booking.class))).thenReturn(bookingDto);
+        when(bookingRepository.findCurrentByOwnerId(anyLong(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(toView(booking)));
+        when(mapper.toDto(any(BookingView.class))).thenReturn(bookingDto);
 
-        bookingService.getAllBookingsByUser(owner.getId(), BookingState.CURRENT, 0, 10, true);
+        bookingService.getAllBookingsByUser(owner.getId(), BookingState.CURRENT, 0, 10, null, true);
 
-        verify(mapper).toDto(bookingArgumentCaptor.capture());
-        Booking actualBooking = bookingArgumentCaptor.getValue();
+        verify(mapper).toDto(bookingViewArgumentCaptor.capture());
+        BookingView actualBooking = bookingViewArgumentCaptor.getValue();
 
         assertTrue(actualBooking.getStart().isBefore(LocalDateTime.now()));
         assertTrue(actualBooking.getEnd().isAfter(LocalDateTime.now()));
@@ -350,69 +358,121 @@ class BookingServiceImplUnitTest {
         booking.setStart(LocalDateTime.now().plusHours(2));
         booking.setEnd(LocalDateTime.now().plusHours(3));
 
-        when(userService.getUserById(anyLong())).thenReturn(userDto);
-        when(bookingRepository.findByOwnerId(anyLong(), any())).thenReturn(List.of(booking));
-        when(mapper.toDto(any(Booking.class))).thenReturn(bookingDto);
+        when(bookingRepository.findFutureByOwnerId(anyLong(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(toView(booking)));
+        when(mapper.toDto(any(BookingView.class))).thenReturn(bookingDto);
 
-        bookingService.getAllBookingsByUser(owner.getId(), BookingState.FUTURE, 0, 10, true);
+        bookingService.getAllBookingsByUser(owner.getId(), BookingState.FUTURE, 0, 10, null, true);
 
-        verify(mapper).toDto(bookingArgumentCaptor.capture());
-        Booking actualBooking = bookingArgumentCaptor.getValue();
+        verify(mapper).toDto(bookingViewArgumentCaptor.capture());
+        BookingView actualBooking = bookingViewArgumentCaptor.getValue();
 
         assertTrue(actualBooking.getStart().isAfter(LocalDateTime.now()));
     }
 
     @Test
     void getAllBookingsByUser_whenIsOwnerAndStateIsAll_thenReturnBookingDto() {
-        when(userService.getUserById(anyLong())).thenReturn(userDto);
-        when(bookingRepository.findByOwnerId(anyLong(), any())).thenReturn(List.of(booking));
-        when(mapper.toDto(any(Booking.class))).thenReturn(bookingDto);
+        when(bookingRepository.findByOwnerId(anyLong(), any(), anyLong(), any())).thenReturn(List.of(toView(booking)));
+        when(mapper.toDto(any(BookingView.class))).thenReturn(bookingDto);
 
         List<BookingDto> actualBookingDto = bookingService.getAllBookingsByUser(owner.getId(), BookingState.ALL,
-                0, 10, true);
+                0, 10, null, true);
 
         assertEquals(List.of(bookingDto), actualBookingDto);
-        verify(mapper).toDto(bookingArgumentCaptor.capture());
-        Booking actualBooking = bookingArgumentCaptor.getValue();
-        assertEquals(actualBooking, booking);
+        verify(mapper).toDto(bookingViewArgumentCaptor.capture());
+        BookingView actualBooking = bookingViewArgumentCaptor.getValue();
+        assertEquals(booking.getId(), actualBooking.getId());
     }
 
     @Test
     void getAllBookingsByUser_whenIsOwnerAndStateIsNull_thenReturnBookingDtoWithAllState() {
-        when(userService.getUserById(anyLong())).thenReturn(userDto);
-        when(bookingRepository.findByOwnerId(anyLong(), any())).thenReturn(List.of(booking));
-        when(mapper.toDto(any(Booking.class))).thenReturn(bookingDto);
+        when(bookingRepository.findByOwnerId(anyLong(), any(), anyLong(), any())).thenReturn(List.of(toView(booking)));
+        when(mapper.toDto(any(BookingView.class))).thenReturn(bookingDto);
 
         List<BookingDto> actualBookingDto = bookingService.getAllBookingsByUser(owner.getId(), null,
-                0, 10, true);
+                0, 10, null, true);
 
         assertEquals(List.of(bookingDto), actualBookingDto);
-        verify(mapper).toDto(bookingArgumentCaptor.capture());
-        Booking actualBooking = bookingArgumentCaptor.getValue();
-        assertEquals(actualBooking, booking);
+        verify(mapper).toDto(bookingViewArgumentCaptor.capture());
+        BookingView actualBooking = bookingViewArgumentCaptor.getValue();
+        assertEquals(booking.getId(), actualBooking.getId());
     }
 
     @Test
     void getAllBookingsByUser_whenIsUserAndStateIsAll_thenReturnBookingDtoWithAllState() {
-        when(userService.getUserById(anyLong())).thenReturn(userDto);
-        when(bookingRepository.findByBookerId(anyLong(), any())).thenReturn(List.of(booking));
-        when(mapper.toDto(any(Booking.class))).thenReturn(bookingDto);
+        when(bookingRepository.findByBookerId(anyLong(), any(), anyLong(), any())).thenReturn(List.of(toView(booking)));
+        when(mapper.toDto(any(BookingView.class))).thenReturn(bookingDto);
 
         List<BookingDto> actualBookingDto = bookingService.getAllBookingsByUser(user.getId(), BookingState.ALL,
-                0, 10, false);
+                0, 10, null, false);
+
+        assertEquals(List.of(bookingDto), actualBookingDto);
+        verify(mapper).toDto(bookingViewArgumentCaptor.capture());
+        BookingView actualBooking = bookingViewArgumentCaptor.getValue();
+        assertEquals(booking.getId(), actualBooking.getId());
+    }
+
+    @Test
+    void getAllBookingsByUser_whenIsUserAndStateIsWaiting_thenReturnBookingDto() {
+        when(bookingRepository.findByBookerIdAndStatus(anyLong(), eq(BookingStatus.WAITING), any(), anyLong(),
+                any()))
+                .thenReturn(List.of(toView(booking)));
+        when(mapper.toDto(any(BookingView.class))).thenReturn(bookingDto);
+
+        List<BookingDto> actualBookingDto = bookingService.getAllBookingsByUser(booker.getId(), BookingState.WAITING,
+                0, 10, null, false);
+
+        assertEquals(List.of(bookingDto), actualBookingDto);
+        verify(bookingRepository, never()).findByBookerId(anyLong(), any(), anyLong(), any());
+    }
+
+    @Test
+    void getAllBookingsByUser_whenIsUserAndStateIsPast_thenReturnBookingDto() {
+        when(bookingRepository.findPastByBookerId(anyLong(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(toView(booking)));
+        when(mapper.toDto(any(BookingView.class))).thenReturn(bookingDto);
+
+        List<BookingDto> actualBookingDto = bookingService.getAllBookingsByUser(booker.getId(), BookingState.PAST,
+                0, 10, null, false);
+
+        assertEquals(List.of(bookingDto), actualBookingDto);
+    }
+
+    @Test
+    void getAllBookingsByUser_whenIsUserAndStateIsCurrent_thenReturnBookingDto() {
+        when(bookingRepository.findCurrentByBookerId(anyLong(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(toView(booking)));
+        when(mapper.toDto(any(BookingView.class))).thenReturn(bookingDto);
+
+        List<BookingDto> actualBookingDto = bookingService.getAllBookingsByUser(booker.getId(), BookingState.CURRENT,
+                0, 10, null, false);
+
+        assertEquals(List.of(bookingDto), actualBookingDto);
+    }
+
+    @Test
+    void getAllBookingsByUser_whenIsUserAndStateIsFuture_thenReturnBookingDto() {
+        when(bookingRepository.findFutureByBookerId(anyLong(), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(toView(booking)));
+        when(mapper.toDto(any(BookingView.class))).thenReturn(bookingDto);
+
+        List<BookingDto> actualBookingDto = bookingService.getAllBookingsByUser(booker.getId(), BookingState.FUTURE,
+                0, 10, null, false);
 
         assertEquals(List.of(bookingDto), actualBookingDto);
-        verify(mapper).toDto(bookingArgumentCaptor.capture());
-        Booking actualBooking = bookingArgumentCaptor.getValue();
-        assertEquals(actualBooking, booking);
     }
 
     @Test
     void getAllBookingsByUser_whenUserNotFound_thenReturnNotFoundException() {
-        when(userService.getUserById(anyLong())).thenThrow(new NotFoundException("Пользователь с id = "
-                + user.getId() + " не найден"));
+        doThrow(new NotFoundException("Пользователь с id = "
+                + user.getId() + " не найден")).when(userService).requireExists(anyLong());
 
         assertThrows(NotFoundException.class, () -> bookingService.getAllBookingsByUser(user.getId(), null,
-                0, 10, false));
+                0, 10, null, false));
+    }
+
+    private BookingView toView(Booking booking) {
+        return new BookingView(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                booking.getBooker().getId(), booking.getItem().getId(), booking.getItem().getName());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadOnlyRoutingDataSourceTest {
+
+    private final AtomicBoolean replica2Down = new AtomicBoolean();
+
+    private Replicas replicas;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        dataSources.put("replica1", h2("replica1"));
+        dataSources.put("replica2", failing(h2("replica2"), replica2Down));
+        replicas = new Replicas(dataSources);
+        replicas.checkHealth();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReadOnlyRoutingDataSource(h2("primary"), replicas));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        replicas.close();
+    }
+
+    @Test
+    void getConnection_whenReadOnlyTransactions_thenReplicasUsedInTurn() {
+        transactionTemplate.setReadOnly(true);
+
+        assertEquals(List.of("REPLICA1", "REPLICA2", "REPLICA1", "REPLICA2"),
+                List.of(readInTransaction(), readInTransaction(), readInTransaction(), readInTransaction()));
+    }
+
+    @Test
+    void getConnection_whenReplicaFails_thenSkippedUntilHealthCheckPasses() {
+        transactionTemplate.setReadOnly(true);
+        replica2Down.set(true);
+
+        assertEquals(List.of("REPLICA1", "REPLICA1", "REPLICA1"),
+                List.of(readInTransaction(), readInTransaction(), readInTransaction()));
+
+        replica2Down.set(false);
+        assertEquals("REPLICA1", readInTransaction());
+        replicas.checkHealth();
+        assertEquals(Set.of("REPLICA1", "REPLICA2"), Set.of(readInTransaction(), readInTransaction()));
+    }
+
+    @Test
+    void getConnection_whenNoReplicaAvailable_thenReturnPrimaryConnection() {
+        replicas = new Replicas(Map.of("replica", failing(h2("replica"), new AtomicBoolean(true))));
+        replicas.checkHealth();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReadOnlyRoutingDataSource(h2("primary"), replicas));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(true);
+
+        assertEquals("PRIMARY", readInTransaction());
+    }
+
+    @Test
+    void getConnection_whenReadWriteTransaction_thenReturnPrimaryConnection() {
+        assertEquals("PRIMARY", readInTransaction());
+    }
+
+    @Test
+    void getConnection_whenNoTransaction_thenReturnPrimaryConnection() {
+        assertEquals("PRIMARY", currentDatabase());
+    }
+
+    @Test
+    void getConnection_whenUserWroteWithinWindow_thenReturnPrimaryConnection() throws Exception {
+        transactionTemplate.setReadOnly(true);
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1));
+        AtomicReference<String> database = new AtomicReference<>();
+
+        filter.doFilter(request("GET", 1), new MockHttpServletResponse(),
+                (req, res) -> database.set(readInTransaction()));
+        assertEquals("REPLICA1", database.get());
+
+        filter.doFilter(request("POST", 1), new MockHttpServletResponse(), (req, res) -> { });
+        filter.doFilter(request("GET", 1), new MockHttpServletResponse(),
+                (req, res) -> database.set(readInTransaction()));
+        assertEquals("PRIMARY", database.get());
+
+        filter.doFilter(request("GET", 2), new MockHttpServletResponse(),
+                (req, res) -> database.set(readInTransaction()));
+        assertEquals("REPLICA2", database.get());
+    }
+
+    @Test
+    void getConnection_whenReadYourWritesDisabled_thenReturnReplicaConnection() throws Exception {
+        transactionTemplate.setReadOnly(true);
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ZERO);
+        AtomicReference<String> database = new AtomicReference<>();
+
+        filter.doFilter(request("POST", 1), new MockHttpServletResponse(), (req, res) -> { });
+        filter.doFilter(request("GET", 1), new MockHttpServletResponse(),
+                (req, res) -> database.set(readInTransaction()));
+
+        assertEquals("REPLICA1", database.get());
+    }
+
+    private String readInTransaction() {
+        return transactionTemplate.execute(status -> currentDatabase());
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("select database()", String.class);
+    }
+
+    private static MockHttpServletRequest request(String method, long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/items");
+        request.addHeader("X-Sharer-User-Id", userId);
+        return request;
+    }
+
+    private static JdbcDataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    // Реплика, которая не выдаёт соединения, пока выставлен флаг down
+    private static DataSource failing(JdbcDataSource dataSource, AtomicBoolean down) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (down.get()) {
+                    throw new SQLException("Connection refused");
+                }
+                return super.getConnection();
+            }
+        };
+    }
+}
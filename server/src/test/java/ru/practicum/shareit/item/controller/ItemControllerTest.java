@@ -76,7 +76,7 @@ class ItemControllerTest {
     @Test
     @SneakyThrows
     void getAllItems() {
-        when(itemService.getOwnerItems(anyLong(), anyInt(), anyInt())).thenReturn(List.of(itemDto));
+        when(itemService.getOwnerItems(anyLong(), anyInt(), anyInt(), any())).thenReturn(List.of(itemDto));
 
         mockMvc.perform(get("/items")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -178,7 +178,7 @@ class ItemControllerTest {
     @Test
     @SneakyThrows
     void searchItem() {
-        when(itemService.searchItem(any(), anyInt(), anyInt())).thenReturn(List.of(itemCreationDtoResp));
+        when(itemService.searchItem(any(), anyInt(), anyInt(), any(), any())).thenReturn(List.of(itemCreationDtoResp));
 
         mockMvc.perform(get("/items/search")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -194,6 +194,21 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].available").value(item.getAvailable()));
     }
 
+    @Test
+    @SneakyThrows
+    void suggestItemNames() {
+        when(itemService.suggestItemNames(any(), anyInt())).thenReturn(List.of(item.getName()));
+
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "item")
+                        .param("size", "5"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value(item.getName()));
+
+        verify(itemService).suggestItemNames("item", 5);
+    }
+
     @Test
     @SneakyThrows
     void addComment() {
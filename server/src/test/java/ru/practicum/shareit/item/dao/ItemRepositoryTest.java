@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.dao;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +10,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
 import ru.practicum.shareit.request.dao.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dao.UserRepository;
@@ -16,6 +18,8 @@ import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -61,16 +65,65 @@ class ItemRepositoryTest {
     void search() {
         Pageable pageable = PageRequest.of(0 / 10, 10, Sort.by("id").descending());
         String searchText = "name";
-        List<Item> foundItems = itemRepository.search(searchText, pageable);
+        List<Item> foundItems = itemRepository.search(searchText, 0, pageable);
 
         assertFalse(foundItems.isEmpty());
         assertTrue(foundItems.get(0).getName().contains(searchText));
     }
 
     @Test
-    void findByOwnerId() {
+    void search_whenTextContainsLikeWildcards_thenMatchedLiterally() {
+        Item discount = itemRepository.save(new Item(0, "Скидка 50%", "off_road!", true, owner, null));
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+
+        assertEquals(List.of(discount.getId()), ids(itemRepository.search(ItemRepository.escapeLike("%"), 0,
+                pageable)));
+        assertEquals(List.of(discount.getId()), ids(itemRepository.search(ItemRepository.escapeLike("f_r"), 0,
+                pageable)));
+        assertEquals(List.of(discount.getId()), ids(itemRepository.search(ItemRepository.escapeLike("d!"), 0,
+                pageable)));
+        assertTrue(itemRepository.search(ItemRepository.escapeLike("item_name"), 0, pageable).isEmpty());
+        assertEquals(List.of(discount.getId()), ids(itemRepository.searchByRelevance(
+                ItemRepository.escapeLike("скидка 50%"), PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void suggestNames() {
+        itemRepository.save(new Item(0, "Item name", "other desc", true, owner, null));
+        itemRepository.save(new Item(0, "item_box", "box desc", true, owner, null));
+        itemRepository.save(new Item(0, "item hidden", "hidden desc", false, owner, null));
+
+        List<String> names = itemRepository.suggestNames(ItemRepository.escapeLike("item"), PageRequest.of(0, 10));
+
+        assertEquals(2, names.size());
+        assertEquals("item name", names.get(0).toLowerCase());
+        assertEquals("item_box", names.get(1));
+        assertEquals(List.of("item_box"), itemRepository.suggestNames(ItemRepository.escapeLike("item_"),
+                PageRequest.of(0, 10)));
+        assertEquals(1, itemRepository.suggestNames(ItemRepository.escapeLike("item"), PageRequest.of(0, 1)).size());
+    }
+
+    @Test
+    void suggestNames_whenMixedCaseAndNonAsciiNames_thenSameAsNameSuggester() {
+        // Строчный вариант сохраняется первым, чтобы из вариантов одного названия подсказки выбирали не по id
+        List.of("дрель", "Дрель", "ДРЕЛЬ ударная", "Ёлка", "ёлочная гирлянда", "Елка", "drill", "Drill press",
+                "Ångström meter", "ångström").forEach(name ->
+                itemRepository.save(new Item(0, name, "desc", true, owner, null)));
+        ItemNameSuggester itemNameSuggester = new ItemNameSuggester(itemRepository, new SimpleMeterRegistry(), true);
+        itemNameSuggester.rebuild();
+
+        for (String prefix : List.of("д", "ДРЕ", "ё", "е", "dr", "Å", "i", "")) {
+            List<String> names = itemRepository.suggestNames(ItemRepository.escapeLike(prefix.toLowerCase(Locale.ROOT)),
+                    PageRequest.of(0, 10));
+
+            assertEquals(names, itemNameSuggester.suggest(prefix, 10), prefix);
+        }
+    }
+
+    @Test
+    void findByOwnerIdAndIdGreaterThan() {
         Pageable pageable = PageRequest.of(0 / 10, 10, Sort.by("id").descending());
-        List<Item> foundItems = itemRepository.findByOwnerId(owner.getId(), pageable);
+        List<Item> foundItems = itemRepository.findByOwnerIdAndIdGreaterThan(owner.getId(), 0, pageable);
 
         assertFalse(foundItems.isEmpty());
         assertEquals(owner.getId(), foundItems.get(0).getOwner().getId());
@@ -78,10 +131,11 @@ class ItemRepositoryTest {
 
     @Test
     void findByRequestIdIn() {
-        List<Item> foundItems = itemRepository.findByRequestIdIn(List.of(itemRequest.getId()));
+        List<ItemForRequestView> foundItems = itemRepository.findByRequestIdIn(List.of(itemRequest.getId()));
 
         assertFalse(foundItems.isEmpty());
-        assertEquals(itemRequest.getId(), foundItems.get(0).getRequest().getId());
+        assertEquals(itemRequest.getId(), foundItems.get(0).getRequestId());
+        assertEquals("item name", foundItems.get(0).getName());
     }
 
     @Test
@@ -91,4 +145,8 @@ class ItemRepositoryTest {
         assertFalse(foundItems.isEmpty());
         assertEquals(itemRequest.getId(), foundItems.get(0).getRequest().getId());
     }
-}
\ No newline at end of file
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemNameSuggesterTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemNameSuggester itemNameSuggester;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        itemNameSuggester = new ItemNameSuggester(itemRepository, new SimpleMeterRegistry(), true);
+        owner = new User(1, "owner", "email@owner.com");
+    }
+
+    @Test
+    void suggest_whenNamesWithPrefix_thenReturnDistinctNamesInAlphabeticalOrder() {
+        when(itemRepository.findByAvailableTrueAndIdGreaterThan(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(
+                        new Item(1, "Дрель", "Простая дрель", true, owner, null),
+                        new Item(2, "дрель", "Ещё одна дрель", true, owner, null),
+                        new Item(3, "Дрель ударная", "Ударная дрель", true, owner, null),
+                        new Item(4, "Домкрат", "Домкрат", true, owner, null),
+                        new Item(5, "Отвёртка", "Отвёртка", true, owner, null)));
+
+        itemNameSuggester.rebuild();
+
+        assertEquals(List.of("Дрель", "Дрель ударная"), itemNameSuggester.suggest("ДР", 10));
+        assertEquals(List.of("Домкрат", "Дрель"), itemNameSuggester.suggest("д", 2));
+        assertEquals(List.of(), itemNameSuggester.suggest("пила", 10));
+    }
+
+    @Test
+    void index_whenItemRenamedOrUnavailable_thenSuggestionsUpdated() {
+        Item drill = new Item(1, "Дрель", "Простая дрель", true, owner, null);
+        Item saw = new Item(2, "Пила", "Ручная пила", true, owner, null);
+        itemNameSuggester.index(drill);
+        itemNameSuggester.index(saw);
+
+        drill.setName("Перфоратор");
+        itemNameSuggester.index(drill);
+        saw.setAvailable(false);
+        itemNameSuggester.index(saw);
+
+        assertEquals(List.of(), itemNameSuggester.suggest("дрель", 10));
+        assertEquals(List.of("Перфоратор"), itemNameSuggester.suggest("п", 10));
+    }
+
+    @Test
+    void rebuild_whenDisabled_thenNotReadyAndNotIndexed() {
+        ItemNameSuggester disabledSuggester = new ItemNameSuggester(itemRepository, new SimpleMeterRegistry(), false);
+
+        disabledSuggester.rebuild();
+        disabledSuggester.index(new Item(1, "Дрель", "Простая дрель", true, owner, null));
+
+        assertFalse(disabledSuggester.isReady());
+        assertEquals(List.of(), disabledSuggester.suggest("дрель", 10));
+        verify(itemRepository, never()).findByAvailableTrueAndIdGreaterThan(anyLong(), any(Pageable.class));
+    }
+}
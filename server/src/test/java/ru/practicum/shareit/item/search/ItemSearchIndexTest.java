@@ -0,0 +1,172 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private final Map<Long, Item> storedItems = new HashMap<>();
+
+    private SimpleMeterRegistry meterRegistry;
+    private ItemSearchIndex itemSearchIndex;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        itemSearchIndex = new ItemSearchIndex(itemRepository, meterRegistry, true);
+        owner = new User(1, "owner", "email@owner.com");
+        // Кандидаты загружаются из "БД", по сущностям которой индекс проверяет совпадение
+        lenient().when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation ->
+                StreamSupport.stream(invocation.<Iterable<Long>>getArgument(0).spliterator(), false)
+                        .map(storedItems::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void rebuild_whenItemsInRepository_thenSearchBySubstringOfNameAndDescription() {
+        when(itemRepository.findByAvailableTrueAndIdGreaterThan(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(
+                        store(new Item(1, "Дрель", "Простая дрель", true, owner, null)),
+                        store(new Item(2, "GoPro Hero 11", "Экшен-камера", true, owner, null)),
+                        store(new Item(3, "Отвёртка", "Аккумуляторная отвёртка", true, owner, null)),
+                        store(new Item(4, "Шуруповёрт", "Аккумуляторная дрель", true, owner, null))));
+
+        itemSearchIndex.rebuild();
+
+        assertTrue(itemSearchIndex.canSearch("дрель"));
+        assertEquals(List.of(1L, 4L), search("ДРЕЛ", 0, 0));
+        assertEquals(List.of(2L), search("шен-кам", 0, 0));
+        assertEquals(List.of(3L, 4L), search("акк", 0, 0));
+        assertEquals(List.of(4L), search("акк", 3, 0));
+        assertEquals(List.of(4L), search("акк", 0, 1));
+        assertEquals(List.of(), search("дрель камера", 0, 0));
+        // Как и в ItemRepository.search, символы шаблона like ищутся буквально
+        assertEquals(List.of(), search("д_ель", 0, 0));
+        assertFalse(itemSearchIndex.canSearch("%"));
+        assertEquals(4.0, meterRegistry.get("shareit.search.index.items").gauge().value());
+        assertTrue(meterRegistry.get("shareit.search.index.memory").gauge().value() > 0);
+        assertEquals(1, meterRegistry.get("shareit.search.index.rebuild").timer().count());
+    }
+
+    @Test
+    void search_whenAllTrigramsPresentButNotSubstring_thenNotFound() {
+        Item item = store(new Item(1, "abcd", "bcde", true, owner, null));
+        itemSearchIndex.rebuild();
+        itemSearchIndex.index(item, null, null);
+
+        assertEquals(List.of(), search("abcde", 0, 0));
+        assertEquals(List.of(1L), search("bcd", 0, 0));
+    }
+
+    @Test
+    void search_whenStoredItemNoLongerAvailable_thenNotFound() {
+        Item item = store(new Item(1, "Дрель", "Простая дрель", true, owner, null));
+        itemSearchIndex.rebuild();
+        itemSearchIndex.index(item, null, null);
+
+        store(new Item(1, "Дрель", "Простая дрель", false, owner, null));
+
+        assertEquals(List.of(), search("дрель", 0, 0));
+    }
+
+    @Test
+    void index_whenItemUpdated_thenOldTextNotFound() {
+        Item item = store(new Item(1, "Дрель", "Простая дрель", true, owner, null));
+        itemSearchIndex.rebuild();
+        itemSearchIndex.index(item, null, null);
+
+        item.setName("Перфоратор");
+        item.setDescription("Мощный перфоратор");
+        itemSearchIndex.index(item, "Дрель", "Простая дрель");
+
+        assertEquals(List.of(), search("дрель", 0, 0));
+        assertEquals(List.of(1L), search("перфо", 0, 0));
+        assertEquals(1.0, meterRegistry.get("shareit.search.index.items").gauge().value());
+    }
+
+    @Test
+    void index_whenItemBecameUnavailable_thenRemovedFromIndex() {
+        Item item = store(new Item(1, "Дрель", "Простая дрель", true, owner, null));
+        itemSearchIndex.rebuild();
+        itemSearchIndex.index(item, null, null);
+
+        item.setAvailable(false);
+        itemSearchIndex.index(item, "Дрель", "Простая дрель");
+
+        assertEquals(List.of(), search("дрель", 0, 0));
+        assertEquals(0.0, meterRegistry.get("shareit.search.index.items").gauge().value());
+    }
+
+    @Test
+    void rebuild_whenInProgress_thenSearchNotBlockedAndChangesKept() throws Exception {
+        Item drill = store(new Item(1, "Дрель", "Простая дрель", true, owner, null));
+        Item saw = store(new Item(2, "Пила", "Ручная пила", true, owner, null));
+        when(itemRepository.findByAvailableTrueAndIdGreaterThan(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(drill))
+                .thenAnswer(invocation -> {
+                    // Поиск из другого потока во время перестроения отвечает по прежнему индексу
+                    List<Long> found = CompletableFuture.supplyAsync(() -> search("дрель", 0, 0))
+                            .get(5, TimeUnit.SECONDS);
+                    assertEquals(List.of(1L), found);
+                    // Вещь, изменённая после чтения пачки, должна попасть и в новый индекс
+                    itemSearchIndex.index(saw, null, null);
+                    return List.of(drill);
+                });
+
+        itemSearchIndex.rebuild();
+        itemSearchIndex.rebuild();
+
+        assertEquals(List.of(1L), search("дрель", 0, 0));
+        assertEquals(List.of(2L), search("пила", 0, 0));
+    }
+
+    @Test
+    void rebuild_whenDisabled_thenCannotSearch() {
+        ItemSearchIndex disabledIndex = new ItemSearchIndex(itemRepository, meterRegistry, false);
+
+        disabledIndex.rebuild();
+
+        assertFalse(disabledIndex.canSearch("дрель"));
+        verify(itemRepository, never()).findByAvailableTrueAndIdGreaterThan(anyLong(), any(Pageable.class));
+    }
+
+    private Item store(Item item) {
+        storedItems.put(item.getId(), item);
+        return item;
+    }
+
+    private List<Long> search(String text, long afterId, long offset) {
+        return itemSearchIndex.search(text, afterId, offset, 10).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+    }
+}
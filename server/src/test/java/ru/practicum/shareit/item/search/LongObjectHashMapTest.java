@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectHashMapTest {
+
+    @Test
+    void computeIfAbsent_whenKeyPresent_thenReturnsExistingValue() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+
+        assertEquals("a", map.computeIfAbsent(1, () -> "a"));
+        assertEquals("a", map.computeIfAbsent(1, () -> "b"));
+        assertEquals(1, map.size());
+        assertNull(map.get(2));
+    }
+
+    @Test
+    void remove_whenRandomOperations_thenSameAsHashMap() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // Узкий диапазон ключей даёт много коллизий и сдвигов цепочек при удалении
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(500);
+            if (random.nextBoolean()) {
+                map.computeIfAbsent(key, () -> key);
+                expected.putIfAbsent(key, key);
+            } else {
+                map.remove(key);
+                expected.remove(key);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 500; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+}
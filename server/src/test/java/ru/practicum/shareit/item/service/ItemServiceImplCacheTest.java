@@ -0,0 +1,88 @@
+package ru.practicum.shareit.item.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true"
+})
+@Sql(scripts = "/schema.sql")
+class ItemServiceImplCacheTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+    private User user;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+
+        User owner = userRepository.save(new User(0, "owner", "email@owner.com"));
+        user = userRepository.save(new User(0, "user", "email@user.com"));
+        item = itemRepository.save(new Item(0, "name", "desc", true, owner, null));
+        commentRepository.save(new Comment(0, "text", item, user, LocalDateTime.now()));
+    }
+
+    @Test
+    void getItemById_whenRequestedTwice_thenSecondRequestNotHitDatabase() {
+        Statistics statistics = sessionFactory.getStatistics();
+        itemService.getItemById(user.getId(), item.getId());
+        statistics.clear();
+
+        ItemDto actualItemDto = itemService.getItemById(user.getId(), item.getId());
+
+        assertEquals(item.getName(), actualItemDto.getName());
+        assertEquals(1, actualItemDto.getComments().size());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void getItemById_whenCommentAdded_thenQueryCacheInvalidated() {
+        Statistics statistics = sessionFactory.getStatistics();
+        itemService.getItemById(user.getId(), item.getId());
+        commentRepository.save(new Comment(0, "new text", item, user, LocalDateTime.now()));
+        statistics.clear();
+
+        ItemDto actualItemDto = itemService.getItemById(user.getId(), item.getId());
+
+        assertEquals(2, actualItemDto.getComments().size());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+    }
+}
@@ -17,6 +17,7 @@ import ru.practicum.shareit.item.dto.ItemCreationDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchSort;
 import ru.practicum.shareit.request.dao.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dao.UserRepository;
@@ -24,6 +25,7 @@ import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -79,7 +81,7 @@ class ItemServiceImplIntegrationTest {
 
     @Test
     void getOwnerItems() {
-        List<ItemDto> actualItems = itemService.getOwnerItems(owner.getId(), 0, 10);
+        List<ItemDto> actualItems = itemService.getOwnerItems(owner.getId(), 0, 10, null);
 
         assertEquals(1, actualItems.get(0).getId());
         assertEquals(item.getName(), actualItems.get(0).getName());
@@ -196,13 +198,29 @@ class ItemServiceImplIntegrationTest {
         Item newItem = new Item(0, "GoPro Hero 11", "Экшен-камера GoPro", true, owner, null);
         itemRepository.save(newItem);
 
-        List<ItemCreationDto> actualItemCreationDto = itemService.searchItem("экшен", 0, 10);
+        List<ItemCreationDto> actualItemCreationDto = itemService.searchItem("экшен", 0, 10, null, ItemSearchSort.ID);
 
         assertEquals(newItem.getName(), actualItemCreationDto.get(0).getName());
         assertEquals(newItem.getDescription(), actualItemCreationDto.get(0).getDescription());
         assertEquals(newItem.getAvailable(), actualItemCreationDto.get(0).getAvailable());
     }
 
+    @Test
+    void searchItem_whenSortByRelevance_thenNameMatchesFirst() {
+        Item byDescription = itemRepository.save(new Item(0, "Крепление", "Крепление для камеры GoPro", true,
+                owner, null));
+        Item byNameContains = itemRepository.save(new Item(0, "Камера GoPro Hero 11", "Экшен-камера", true,
+                owner, null));
+        Item byNamePrefix = itemRepository.save(new Item(0, "GoPro Hero 10", "Экшен-камера", true, owner, null));
+        Item byExactName = itemRepository.save(new Item(0, "gopro", "Экшен-камера", true, owner, null));
+
+        List<ItemCreationDto> actualItemCreationDto = itemService.searchItem("GoPro", 0, 10, null,
+                ItemSearchSort.RELEVANCE);
+
+        assertEquals(List.of(byExactName.getId(), byNamePrefix.getId(), byNameContains.getId(), byDescription.getId()),
+                actualItemCreationDto.stream().map(ItemCreationDto::getId).collect(Collectors.toList()));
+    }
+
     @Test
     void addComment() {
         Booking newBooking = new Booking(0, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.dao.BookingRepository;
 import ru.practicum.shareit.booking.dto.BookingIdBookerIdDto;
@@ -13,6 +14,7 @@ import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dao.CommentRepository;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.CommentDto;
@@ -23,12 +25,16 @@ import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchSort;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.dao.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utils.PageCursor;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -60,6 +66,10 @@ class ItemServiceImplUnitTest {
     private UserService userService;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemNameSuggester itemNameSuggester;
 
     private User booker;
     private User user;
@@ -96,17 +106,19 @@ class ItemServiceImplUnitTest {
     void getOwnerItems() {
         Booking booking = new Booking(1, LocalDateTime.now(), LocalDateTime.now().plusHours(1), item, new User(), BookingStatus.APPROVED);
 
-        when(itemRepository.findByOwnerId(anyLong(), any(Pageable.class))).thenReturn(List.of(item));
+        when(itemRepository.findByOwnerIdAndIdGreaterThan(anyLong(), anyLong(), any(Pageable.class))).thenReturn(List.of(item));
         when(commentRepository.findByItemsId(anyList())).thenReturn(List.of(comment));
         when(commentMapper.toDto(any(Comment.class))).thenReturn(commentDto);
-        when(bookingRepository.findByItemId(anyLong())).thenReturn(List.of(booking));
+        when(bookingRepository.findLastBookings(anyList(), any())).thenReturn(List.of(booking));
+        when(bookingRepository.findNextBookings(anyList(), any())).thenReturn(List.of(booking));
         when(bookingMapper.toBookingIdBookerIdDto(any())).thenReturn(lb);
-        when(bookingMapper.toBookingIdBookerIdDto(any())).thenReturn(nb);
         when(itemMapper.toDto(any(), any(), any(), anyList())).thenReturn(itemDto);
 
-        List<ItemDto> actualItemsDto = itemService.getOwnerItems(1, 0, 10);
+        List<ItemDto> actualItemsDto = itemService.getOwnerItems(1, 0, 10, null);
 
         assertEquals(List.of(itemDto), actualItemsDto);
+        verify(bookingRepository, times(1)).findLastBookings(anyList(), any());
+        verify(bookingRepository, times(1)).findNextBookings(anyList(), any());
 
     }
 
@@ -148,8 +160,8 @@ class ItemServiceImplUnitTest {
         assertThrows(NotFoundException.class, () -> itemService.getItemById(3, 1));
 
         verify(commentRepository, never()).findByItemsId(anyList());
-        verify(bookingRepository, never()).findByItemId(anyLong());
-        verify(bookingRepository, never()).findByItemId(anyLong());
+        verify(bookingRepository, never()).findLastBookings(anyList(), any());
+        verify(bookingRepository, never()).findNextBookings(anyList(), any());
         verify(bookingMapper, never()).toBookingIdBookerIdDto(any());
         verify(itemMapper, never()).toDto(any(), any(), any(), anyList());
     }
@@ -166,6 +178,8 @@ class ItemServiceImplUnitTest {
 
         assertEquals(itemCreationDto, actualItemCreationDto);
         assertEquals(0, actualItemCreationDto.getRequestId());
+        verify(itemSearchIndex, times(1)).index(item, null, null);
+        verify(itemNameSuggester, times(1)).index(item);
     }
 
     @Test
@@ -223,9 +237,6 @@ class ItemServiceImplUnitTest {
         Item newItem = new Item();
         newItem.setName(nameItemCreationDto.getName());
 
-        when(userService.getUserById(anyLong())).thenReturn(userDto);
-        when(userMapper.toUser(any())).thenReturn(user);
-        when(itemMapper.toItem(any(), any())).thenReturn(newItem);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
         itemCreationDto.setName(newItem.getName());
         when(itemRepository.save(any())).thenReturn(item);
@@ -233,6 +244,8 @@ class ItemServiceImplUnitTest {
 
         ItemCreationDto actualItemCreationDto = itemService.updateItem(1, 1, nameItemCreationDto);
 
+        verify(itemMapper).patch(item, nameItemCreationDto);
+        verify(itemSearchIndex).index(item, "name", "desc");
         assertEquals(nameItemCreationDto.getName(), actualItemCreationDto.getName());
     }
 
@@ -244,9 +257,6 @@ class ItemServiceImplUnitTest {
         Item newItem = new Item();
         newItem.setDescription(itemCreationDto.getDescription());
 
-        when(userService.getUserById(anyLong())).thenReturn(userDto);
-        when(userMapper.toUser(any())).thenReturn(user);
-        when(itemMapper.toItem(any(), any())).thenReturn(newItem);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
         itemCreationDto.setName(newItem.getName());
         when(itemRepository.save(any())).thenReturn(item);
@@ -254,6 +264,7 @@ class ItemServiceImplUnitTest {
 
         ItemCreationDto actualItemCreationDto = itemService.updateItem(1, 1, itemCreationDto);
 
+        verify(itemMapper).patch(item, itemCreationDto);
         assertEquals(itemCreationDto.getDescription(), actualItemCreationDto.getDescription());
     }
 
@@ -265,9 +276,6 @@ class ItemServiceImplUnitTest {
         Item newItem = new Item();
         newItem.setAvailable(itemCreationDto.getAvailable());
 
-        when(userService.getUserById(anyLong())).thenReturn(userDto);
-        when(userMapper.toUser(any())).thenReturn(user);
-        when(itemMapper.toItem(any(), any())).thenReturn(newItem);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
         itemCreationDto.setName(newItem.getName());
         when(itemRepository.save(any())).thenReturn(item);
@@ -275,19 +283,71 @@ class ItemServiceImplUnitTest {
 
         ItemCreationDto actualItemCreationDto = itemService.updateItem(1, 1, itemCreationDto);
 
+        verify(itemMapper).patch(item, itemCreationDto);
         assertEquals(itemCreationDto.getAvailable(), actualItemCreationDto.getAvailable());
     }
 
     @Test
     void searchItem() {
-        when(itemRepository.search(anyString(), any(Pageable.class))).thenReturn(List.of(item));
+        when(itemRepository.search(anyString(), anyLong(), any(Pageable.class))).thenReturn(List.of(item));
         when(itemMapper.toDto(any(Item.class))).thenReturn(itemCreationDto);
 
-        List<ItemCreationDto> actualItemCreationDto = itemService.searchItem("name", 0, 10);
+        List<ItemCreationDto> actualItemCreationDto = itemService.searchItem("name", 0, 10, null, ItemSearchSort.ID);
 
         assertEquals(List.of(itemCreationDto), actualItemCreationDto);
     }
 
+    @Test
+    void searchItem_whenSearchIndexReady_thenSearchInIndex() {
+        when(itemSearchIndex.canSearch(anyString())).thenReturn(true);
+        when(itemSearchIndex.search(anyString(), anyLong(), anyLong(), anyInt())).thenReturn(List.of(item));
+        when(itemMapper.toDto(any(Item.class))).thenReturn(itemCreationDto);
+
+        List<ItemCreationDto> actualItemCreationDto = itemService.searchItem("name", 0, 10, null, ItemSearchSort.ID);
+
+        assertEquals(List.of(itemCreationDto), actualItemCreationDto);
+        verify(itemRepository, never()).search(anyString(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void searchItem_whenSortByRelevanceWithCursor_thenReturnValidationException() {
+        String cursor = PageCursor.encode(1);
+
+        assertThrows(ValidationException.class,
+                () -> itemService.searchItem("name", 0, 10, cursor, ItemSearchSort.RELEVANCE));
+
+        verify(itemRepository, never()).searchByRelevance(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void suggestItemNames() {
+        when(itemNameSuggester.isReady()).thenReturn(true);
+        when(itemNameSuggester.suggest(anyString(), anyInt())).thenReturn(List.of(item.getName()));
+
+        List<String> actualNames = itemService.suggestItemNames("na", 10);
+
+        assertEquals(List.of(item.getName()), actualNames);
+    }
+
+    @Test
+    void suggestItemNames_whenSuggesterNotReady_thenSuggestFromRepository() {
+        when(itemRepository.suggestNames(anyString(), any(Pageable.class))).thenReturn(List.of(item.getName()));
+
+        List<String> actualNames = itemService.suggestItemNames("NA%", 10);
+
+        assertEquals(List.of(item.getName()), actualNames);
+        verify(itemRepository).suggestNames("na!%", PageRequest.of(0, 10));
+        verify(itemNameSuggester, never()).suggest(anyString(), anyInt());
+    }
+
+    @Test
+    void suggestItemNames_whenPrefixIsBlank_thenReturnEmptyList() {
+        List<String> actualNames = itemService.suggestItemNames(" ", 10);
+
+        assertTrue(actualNames.isEmpty());
+        verify(itemNameSuggester, never()).suggest(anyString(), anyInt());
+    }
+
     @Test
     void addComment() {
         Booking booking = new Booking(1, LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1),
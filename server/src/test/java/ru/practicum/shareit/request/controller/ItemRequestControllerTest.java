@@ -123,7 +123,7 @@ class ItemRequestControllerTest {
     @Test
     @SneakyThrows
     void getRequestsList() {
-        when(itemRequestService.getRequestsList(anyLong(), anyInt(), anyInt())).thenReturn(List.of(itemRequestDto));
+        when(itemRequestService.getRequestsList(anyLong(), anyInt(), anyInt(), any())).thenReturn(List.of(itemRequestDto));
 
         mockMvc.perform(get("/requests/all")
                         .contentType(MediaType.APPLICATION_JSON)
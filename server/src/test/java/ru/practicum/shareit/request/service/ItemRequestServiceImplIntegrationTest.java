@@ -87,7 +87,7 @@ class ItemRequestServiceImplIntegrationTest {
 
     @Test
     void getRequestsList() {
-        List<ItemRequestDto> actualItemRequestDto = itemRequestService.getRequestsList(user.getId(), 0,10);
+        List<ItemRequestDto> actualItemRequestDto = itemRequestService.getRequestsList(user.getId(), 0, 10, null);
 
         assertEquals(1, actualItemRequestDto.get(0).getId());
         assertEquals(ir.getDescription(), actualItemRequestDto.get(0).getDescription());
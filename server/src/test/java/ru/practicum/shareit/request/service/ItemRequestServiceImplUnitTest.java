@@ -5,9 +5,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dao.ItemForRequestView;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemDtoForRequest;
 import ru.practicum.shareit.item.model.Item;
@@ -94,10 +94,9 @@ class ItemRequestServiceImplUnitTest {
                 item.getAvailable(), item.getRequest().getId());
         ItemRequestDto expected = new ItemRequestDto(ir.getId(), ir.getDescription(), ir.getCreated(), List.of(itemDto));
 
-        when(userService.getUserById(anyLong())).thenReturn(new UserDto());
         when(itemRequestRepository.findByRequestorIdOrderByCreatedDesc(anyLong())).thenReturn(List.of(ir));
-        when(itemRepository.findByRequestIdIn(anyList())).thenReturn(List.of(item));
-        when(itemRequestMapper.toItemDtoForReq(any())).thenReturn(itemDto);
+        when(itemRepository.findByRequestIdIn(anyList())).thenReturn(List.of(mock(ItemForRequestView.class)));
+        when(itemRequestMapper.toItemDtoForReq(any(ItemForRequestView.class))).thenReturn(itemDto);
         when(itemRequestMapper.toItemRequestDto(any(), anyList())).thenReturn(expected);
 
         List<ItemRequestDto> actualItemRequests = itemRequestService.getListOwnRequests(anyLong());
@@ -107,8 +106,8 @@ class ItemRequestServiceImplUnitTest {
 
     @Test
     void getListOwnRequest_whenRequestorNotFound_thenReturnNotFoundException() {
-        when(userService.getUserById(anyLong())).thenThrow(new NotFoundException("Пользователь с id = "
-                + 1 + " не найден"));
+        doThrow(new NotFoundException("Пользователь с id = "
+                + 1 + " не найден")).when(userService).requireExists(anyLong());
 
         assertThrows(NotFoundException.class, () -> itemRequestService.getListOwnRequests(anyLong()));
     }
@@ -121,9 +120,8 @@ class ItemRequestServiceImplUnitTest {
                 item.getAvailable(), item.getRequest().getId());
         ItemRequestDto expected = new ItemRequestDto(ir.getId(), ir.getDescription(), ir.getCreated(), List.of(itemDto));
 
-        when(userService.getUserById(anyLong())).thenReturn(new UserDto());
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.of(ir));
-        when(itemRequestMapper.toItemDtoForReq(any())).thenReturn(itemDto);
+        when(itemRequestMapper.toItemDtoForReq(any(Item.class))).thenReturn(itemDto);
         when(itemRepository.findByRequestId(anyLong())).thenReturn(List.of(item));
         when(itemRequestMapper.toItemRequestDto(any(), anyList())).thenReturn(expected);
 
@@ -134,8 +132,8 @@ class ItemRequestServiceImplUnitTest {
 
     @Test
     void getRequestById_whenRequestorNotFound_thenReturnNotFoundException() {
-        when(userService.getUserById(anyLong())).thenThrow(new NotFoundException("Пользователь с id = "
-                + 1 + " не найден"));
+        doThrow(new NotFoundException("Пользователь с id = "
+                + 1 + " не найден")).when(userService).requireExists(anyLong());
 
         assertThrows(NotFoundException.class, () -> itemRequestService.getRequestById(0, 1));
         verify(itemRequestRepository, never()).findById(anyLong());
@@ -148,7 +146,7 @@ class ItemRequestServiceImplUnitTest {
         when(itemRequestRepository.findById(anyLong())).thenThrow(new NotFoundException("Запрос requestId " + 1 + " не найден"));
 
         assertThrows(NotFoundException.class, () -> itemRequestService.getRequestById(0, 1));
-        verify(userService, times(1)).getUserById(anyLong());
+        verify(userService, times(1)).requireExists(anyLong());
         verify(itemRepository, never()).findByRequestIdIn(anyList());
         verify(itemRequestMapper, never()).toItemRequestDto(any(), anyList());
     }
@@ -161,26 +159,26 @@ class ItemRequestServiceImplUnitTest {
                 item.getAvailable(), item.getRequest().getId());
         ItemRequestDto expected = new ItemRequestDto(ir.getId(), ir.getDescription(), ir.getCreated(), List.of(itemDto));
 
-        when(userService.getUserById(anyLong())).thenReturn(new UserDto());
-        when(itemRequestRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(ir)));
-        when(itemRepository.findByRequestIdIn(anyList())).thenReturn(List.of(item));
-        when(itemRequestMapper.toItemDtoForReq(any())).thenReturn(itemDto);
+        when(itemRequestRepository.findOthersRequests(anyLong(), any(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(ir));
+        when(itemRepository.findByRequestIdIn(anyList())).thenReturn(List.of(mock(ItemForRequestView.class)));
+        when(itemRequestMapper.toItemDtoForReq(any(ItemForRequestView.class))).thenReturn(itemDto);
         when(itemRequestMapper.toItemRequestDto(any(), anyList())).thenReturn(expected);
 
-        List<ItemRequestDto> actualItemRequests = itemRequestService.getRequestsList(2, 0, 10);
+        List<ItemRequestDto> actualItemRequests = itemRequestService.getRequestsList(2, 0, 10, null);
 
         assertEquals(List.of(expected), actualItemRequests);
     }
 
     @Test
     void getRequestsList_whenRequestorNotFound_thenReturnNotFoundException() {
-        when(userService.getUserById(anyLong())).thenThrow(new NotFoundException("Пользователь с id = "
-                + 1 + " не найден"));
+        doThrow(new NotFoundException("Пользователь с id = "
+                + 1 + " не найден")).when(userService).requireExists(anyLong());
 
         assertThrows(NotFoundException.class, () -> itemRequestService.getRequestById(0, 1));
-        verify(itemRequestRepository, never()).findAll(any(Pageable.class));
+        verify(itemRequestRepository, never()).findOthersRequests(anyLong(), any(), anyLong(), any(Pageable.class));
         verify(itemRepository, never()).findByRequestIdIn(anyList());
-        verify(itemRequestMapper, never()).toItemDtoForReq(any());
+        verify(itemRequestMapper, never()).toItemDtoForReq(any(ItemForRequestView.class));
         verify(itemRequestMapper, never()).toItemRequestDto(any(), anyList());
     }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.dao.UserRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = "spring.cache.type=caffeine")
+@Sql(scripts = "/schema.sql")
+class UserServiceImplCacheTest {
+
+    @SpyBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        Objects.requireNonNull(cacheManager.getCache(UserServiceImpl.USERS_CACHE)).clear();
+        user = userRepository.save(new User(0, "user", "email@user.com"));
+        clearInvocations(userRepository);
+    }
+
+    @Test
+    void getUserById_whenCalledTwice_thenQueryRepositoryOnce() {
+        userService.getUserById(user.getId());
+        UserDto actualUserDto = userService.getUserById(user.getId());
+        userService.requireExists(user.getId());
+
+        assertEquals(user.getName(), actualUserDto.getName());
+        verify(userRepository, times(1)).findById(user.getId());
+        verify(userRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void updateUser_whenUserCached_thenReturnUpdatedUserFromCache() {
+        userService.getUserById(user.getId());
+
+        userService.updateUser(user.getId(), new UserDto(0, "updated", null));
+        UserDto actualUserDto = userService.getUserById(user.getId());
+
+        assertEquals("updated", actualUserDto.getName());
+        verify(userRepository, times(2)).findById(user.getId());
+    }
+
+    @Test
+    void updateUser_whenEmailDuplicatedOnCommit_thenCacheKeepsCommittedEmail() {
+        userRepository.save(new User(0, "other", "other@user.com"));
+        userService.getUserById(user.getId());
+
+        // Фиксация во внешней транзакции происходит уже после выхода из updateUser при любом порядке советов
+        assertThrows(DataIntegrityViolationException.class, () -> transactionTemplate.executeWithoutResult(
+                status -> userService.updateUser(user.getId(), new UserDto(0, null, "other@user.com"))));
+
+        UserDto cachedUser = Objects.requireNonNull(cacheManager.getCache(UserServiceImpl.USERS_CACHE))
+                .get(user.getId(), UserDto.class);
+        assertEquals(user.getEmail(), Objects.requireNonNull(cachedUser).getEmail());
+        assertEquals(user.getEmail(), userService.getUserById(user.getId()).getEmail());
+    }
+
+    @Test
+    void deleteUser_whenUserCached_thenEvictUser() {
+        userService.getUserById(user.getId());
+
+        userService.deleteUser(user.getId());
+
+        assertThrows(NotFoundException.class, () -> userService.getUserById(user.getId()));
+        assertThrows(NotFoundException.class, () -> userService.requireExists(user.getId()));
+    }
+}
@@ -8,6 +8,9 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -32,6 +35,8 @@ class UserServiceImplUnitTest {
     private UserRepository userRepository;
     @Mock
     private UserMapper userMapper;
+    @Mock
+    private CacheManager cacheManager;
     @Captor
     ArgumentCaptor<User> userArgumentCaptor;
 
@@ -79,6 +84,26 @@ class UserServiceImplUnitTest {
         verify(userMapper, never()).toDto(any(User.class));
     }
 
+    @Test
+    void requireExists_whenUserCached_thenNotQueryRepository() {
+        Cache users = new ConcurrentMapCache(UserServiceImpl.USERS_CACHE);
+        users.put(user.getId(), userDto);
+        when(cacheManager.getCache(UserServiceImpl.USERS_CACHE)).thenReturn(users);
+
+        userService.requireExists(user.getId());
+
+        verify(userRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void requireExists_whenUserNotCachedAndNotFound_thenReturnException() {
+        when(cacheManager.getCache(UserServiceImpl.USERS_CACHE))
+                .thenReturn(new ConcurrentMapCache(UserServiceImpl.USERS_CACHE));
+        when(userRepository.existsById(anyLong())).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> userService.requireExists(user.getId()));
+    }
+
     @Test
     void createUser() {
         // Я так понимаю, что негативные сценарии актуальны для этого метода только в интеграционных тестах?
@@ -98,12 +123,12 @@ class UserServiceImplUnitTest {
         User newUser = new User();
         newUser.setName("updated name");
 
-        when(userMapper.toUser(any())).thenReturn(newUser);
+        doCallRealMethod().when(userMapper).patch(any(), any());
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         user.setName(newUser.getName());
         when(userRepository.save(any())).thenReturn(user);
 
-        userService.updateUser(1, userMapper.toDto(newUser));
+        userService.updateUser(1, new UserDto(0, newUser.getName(), newUser.getEmail()));
 
         verify(userRepository).save(userArgumentCaptor.capture());
         User savedUser = userArgumentCaptor.getValue();
@@ -117,12 +142,12 @@ class UserServiceImplUnitTest {
         User newUser = new User();
         newUser.setName("updated@email.com");
 
-        when(userMapper.toUser(any())).thenReturn(newUser);
+        doCallRealMethod().when(userMapper).patch(any(), any());
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         user.setEmail(newUser.getEmail());
         when(userRepository.save(any())).thenReturn(user);
 
-        userService.updateUser(1, userMapper.toDto(newUser));
+        userService.updateUser(1, new UserDto(0, newUser.getName(), newUser.getEmail()));
 
         verify(userRepository).save(userArgumentCaptor.capture());
         User savedUser = userArgumentCaptor.getValue();
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.shareit.item.dto.ItemCreationDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Применение PATCH-запроса пользователя и вещи: UserMapper.patch и ItemMapper.patch против прежнего пути
+ * через Mapper.toMap (новый ObjectMapper на каждый вызов, convertValue в Map и отбор полей не равных null).
+ * Mapper удалён из кода, поэтому его toMap воспроизведён здесь без изменений.
+ * <p>
+ * Не запускается вместе с тестами. Запуск:
+ * <pre>
+ * mvn -pl server test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ * java -cp server/target/test-classes:server/target/classes:$(cat server/target/test.classpath) \
+ *     ru.practicum.shareit.utils.PatchBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatchBenchmark {
+
+    private final UserMapper userMapper = new UserMapper();
+    private final ItemMapper itemMapper = new ItemMapper();
+
+    private final User owner = new User(1, "owner", "owner@mail.com");
+    private final User user = new User(2, "user", "user@mail.com");
+    private final Item item = new Item(1, "Дрель", "Простая дрель", true, owner, null);
+
+    private final UserDto userPatch = new UserDto(0, "updated", null);
+    private final ItemCreationDto itemPatch = new ItemCreationDto(0, null, "Аккумуляторная дрель", false);
+
+    @Benchmark
+    public User userMapperPatch() {
+        userMapper.patch(user, userPatch);
+        return user;
+    }
+
+    // Как UserServiceImpl.updateUser до перехода на UserMapper.patch
+    @Benchmark
+    public User userToMap() {
+        User patch = userMapper.toUser(userPatch);
+        Map<String, Object> userFields = toMap(patch);
+        if (userFields.containsKey("name")) {
+            user.setName(patch.getName());
+        }
+        if (userFields.containsKey("email")) {
+            user.setEmail(patch.getEmail());
+        }
+        return user;
+    }
+
+    @Benchmark
+    public Item itemMapperPatch() {
+        itemMapper.patch(item, itemPatch);
+        return item;
+    }
+
+    // Как ItemServiceImpl.updateItem до перехода на ItemMapper.patch
+    @Benchmark
+    public Item itemToMap() {
+        Item patch = itemMapper.toItem(itemPatch, owner);
+        Map<String, Object> itemFields = toMap(patch);
+        if (itemFields.containsKey("name")) {
+            item.setName(patch.getName());
+        }
+        if (itemFields.containsKey("description")) {
+            item.setDescription(patch.getDescription());
+        }
+        if (itemFields.containsKey("available")) {
+            item.setAvailable(patch.getAvailable());
+        }
+        return item;
+    }
+
+    // Прежний Mapper.toMap
+    private static Map<String, Object> toMap(Object shareItObject) {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Object> objectFields = mapper.convertValue(shareItObject, new TypeReference<>() {});
+        return objectFields.entrySet()
+                .stream()
+                .filter(k -> k.getValue() != null)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(PatchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
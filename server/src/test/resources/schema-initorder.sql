@@ -0,0 +1,2 @@
+-- Скрипт платформы для SqlInitOrderTest: индексирует таблицу из schema.sql и падает, если выполнен раньше него
+create index if not exists items_init_order_idx on items (name);